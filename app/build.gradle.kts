@@ -15,10 +15,29 @@ android {
         versionName = "1.0"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+        // The on-device benchmarks in androidTest run against the debug build; their numbers are for
+        // before/after comparisons on the same device, not absolute figures
+        testInstrumentationRunnerArguments["androidx.benchmark.suppressErrors"] = "DEBUGGABLE,EMULATOR,LOW-BATTERY"
+
+        // Exported Room schemas are checked in and used by MigrationTest
+        javaCompileOptions {
+            annotationProcessorOptions {
+                arguments["room.schemaLocation"] = "$projectDir/schemas"
+            }
+        }
+    }
+
+    sourceSets {
+        getByName("androidTest").assets.srcDir("$projectDir/schemas")
     }
 
     buildTypes {
+        debug {
+            // GroqDiagnostics default: one redacted header dump every 20 requests
+            buildConfigField("String", "GROQ_DIAGNOSTICS", "\"SAMPLED\"")
+        }
         release {
+            buildConfigField("String", "GROQ_DIAGNOSTICS", "\"OFF\"")
             isMinifyEnabled = false
             proguardFiles(
                 getDefaultProguardFile("proguard-android-optimize.txt"),
@@ -32,7 +51,35 @@ android {
     }
     buildFeatures {
         viewBinding = true
+        buildConfig = true
     }
+    testOptions {
+        // android.util.Log and friends are no-ops in JVM tests and benchmarks instead of throwing
+        unitTests.isReturnDefaultValues = true
+        // Robolectric end-to-end tests (QuizFlowTest) need the merged manifest and resources
+        unitTests.isIncludeAndroidResources = true
+    }
+}
+
+// JMH suites in src/test (classes named *Benchmark), compared against benchmark-baselines/jmh.json:
+//   ./gradlew :app:jmh                          run everything
+//   ./gradlew :app:jmh -Pjmh.include=Parsing    only benchmarks matching the regex
+//   ./gradlew :app:jmh -Pjmh.update             record the results as the new baseline
+// The task fails when a benchmark allocates more per op than in the baseline. Scores in the checked-in
+// baseline are from a JDK 17 single-core run; slower ones are only flagged, and to compare times record
+// a local baseline with -Pjmh.update before a change and run :app:jmh after it
+tasks.register<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs the JMH benchmarks and compares them with the checked-in baseline."
+    val unitTest = tasks.named<Test>("testDebugUnitTest")
+    classpath(unitTest.map { it.classpath })
+    mainClass.set("com.example.studybuddy.BenchmarkBaselines")
+    args(
+        project.findProperty("jmh.include")?.toString() ?: ".*Benchmark.*",
+        layout.buildDirectory.file("reports/jmh/results.json").get().asFile.path,
+        file("benchmark-baselines/jmh.json").path,
+        project.hasProperty("jmh.update").toString()
+    )
 }
 
 dependencies {
@@ -51,6 +98,11 @@ dependencies {
     implementation(libs.activity)
     implementation(libs.constraintlayout)
     annotationProcessor(libs.room.compiler)
+
+    // Paging (keyset PagingSources are written against the ListenableFuture API)
+    implementation(libs.paging.runtime)
+    implementation(libs.paging.guava)
+    implementation(libs.guava)
     
     // Retrofit & Networking
     implementation(libs.retrofit)
@@ -60,7 +112,6 @@ dependencies {
     implementation("com.squareup.retrofit2:retrofit:2.9.0")
     implementation("com.squareup.retrofit2:converter-gson:2.9.0")
     implementation("com.squareup.okhttp3:okhttp:4.11.0")
-    implementation("com.squareup.okhttp3:logging-interceptor:4.11.0")
     implementation(platform("com.google.firebase:firebase-bom:32.7.2"))
 
     // Lifecycle
@@ -68,6 +119,16 @@ dependencies {
     implementation(libs.lifecycle.livedata)
     
     testImplementation(libs.junit)
+    testImplementation(libs.jmh.core)
+    testAnnotationProcessor(libs.jmh.generator.annprocess)
+    // Only for the BODY-logging comparison in DiagnosticsBenchmark
+    testImplementation(libs.okhttp.logging)
+    // Offline end-to-end quiz tests against a local Groq stand-in (MockGroqServer)
+    testImplementation(libs.okhttp.mockwebserver)
+    testImplementation(libs.robolectric)
+    testImplementation(libs.test.core)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
+    androidTestImplementation(libs.room.testing)
+    androidTestImplementation(libs.benchmark.junit4)
 }
\ No newline at end of file
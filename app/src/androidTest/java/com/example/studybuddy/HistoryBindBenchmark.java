@@ -0,0 +1,65 @@
+package com.example.studybuddy;
+
+import android.content.Context;
+import android.widget.TextView;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.studybuddy.data.OptionsConverter;
+import com.example.studybuddy.data.QuizHistory;
+import com.google.gson.Gson;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * The options part of HistoryAdapter.onBindViewHolder, before and after options became a typed
+ * column: a new Gson and a JSON parse on every bind, against the label cached on the loaded row.
+ */
+@RunWith(AndroidJUnit4.class)
+public class HistoryBindBenchmark {
+    private static final String OPTIONS_JSON =
+            "[\"Nucleus\",\"Mitochondria\",\"Ribosome\",\"Golgi apparatus\"]";
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private TextView optionsText;
+    private QuizHistory row;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> optionsText = new TextView(context));
+        // As Room loads it: options converted once, label built on first bind
+        row = new QuizHistory();
+        row.options = OptionsConverter.fromJson(OPTIONS_JSON);
+    }
+
+    @Test
+    public void bindOptions_parsePerBind() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            String[] options = new Gson().fromJson(OPTIONS_JSON, String[].class);
+            StringBuilder label = new StringBuilder("Options: ");
+            for (int i = 0; i < options.length; i++) {
+                label.append((char) ('A' + i)).append(") ").append(options[i]);
+                if (i < options.length - 1) label.append(", ");
+            }
+            optionsText.setText(label.toString());
+        }
+    }
+
+    @Test
+    public void bindOptions_cachedLabel() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            optionsText.setText(row.getOptionsLabel());
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.example.studybuddy.data;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Upgrades databases created from the exported schemas in app/schemas and checks that quiz history
+ * survives and that the hot QuizHistoryDao queries are served by the quiz_history indices.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+    private static final String TEST_DB = "migration-test";
+    private static final int LATEST_VERSION = 9;
+
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(), AppDatabase.class);
+
+    @Test
+    public void migrate2ToLatest_keepsHistory() throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 2);
+        insertHistory(db, "Biology", "What is ATP?", false, "session-1", 1000L);
+        insertHistory(db, "Biology", "What is DNA?", true, "session-1", 2000L);
+        insertHistory(db, "History", "Who was Caesar?", true, "session-2", 3000L);
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, LATEST_VERSION, true, AppDatabase.MIGRATIONS);
+
+        try (Cursor cursor = db.query("SELECT question, isCorrect, sessionId FROM quiz_history ORDER BY timestamp")) {
+            assertEquals(3, cursor.getCount());
+            cursor.moveToFirst();
+            assertEquals("What is ATP?", cursor.getString(0));
+            assertEquals(0, cursor.getInt(1));
+            assertEquals("session-1", cursor.getString(2));
+        }
+        try (Cursor cursor = db.query("SELECT COUNT(*) FROM generated_questions")) {
+            cursor.moveToFirst();
+            assertEquals(0, cursor.getInt(0));
+        }
+        // Existing answers get a first review: wrong ones due immediately, right ones a day later
+        try (Cursor cursor = db.query("SELECT easeFactor, intervalDays, dueAt, lastReviewed " +
+                "FROM quiz_history ORDER BY timestamp")) {
+            cursor.moveToFirst();
+            assertEquals(2.5, cursor.getDouble(0), 0.0);
+            assertEquals(0, cursor.getInt(1));
+            assertEquals(cursor.getLong(3), cursor.getLong(2));
+            cursor.moveToNext();
+            assertEquals(1, cursor.getInt(1));
+            assertEquals(cursor.getLong(3) + 86400000L, cursor.getLong(2));
+        }
+        // category_stats is backfilled from the migrated history
+        try (Cursor cursor = db.query("SELECT total, incorrect, recentTotal, recentIncorrect " +
+                "FROM category_stats WHERE category = 'Biology'")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(2, cursor.getInt(0));
+            assertEquals(1, cursor.getInt(1));
+            assertEquals(2, cursor.getInt(2));
+            assertEquals(1, cursor.getInt(3));
+        }
+        // session_summary is backfilled too
+        assertSession(db, "session-1", "Biology", 1000L, 2, 1);
+        assertSession(db, "session-2", "History", 3000L, 1, 1);
+    }
+
+    @Test
+    public void migrateEachVersionToLatest_keepsHistory() throws IOException {
+        for (int version = 2; version < LATEST_VERSION; version++) {
+            String name = TEST_DB + "-" + version;
+            SupportSQLiteDatabase db = helper.createDatabase(name, version);
+            insertHistory(db, "Physics", "What is inertia?", false, "session-" + version, 1000L);
+            db.close();
+
+            db = helper.runMigrationsAndValidate(name, LATEST_VERSION, true, AppDatabase.MIGRATIONS);
+            try (Cursor cursor = db.query("SELECT question, sessionId FROM quiz_history")) {
+                assertEquals("from version " + version, 1, cursor.getCount());
+                cursor.moveToFirst();
+                assertEquals("What is inertia?", cursor.getString(0));
+                assertEquals("session-" + version, cursor.getString(1));
+            }
+            db.close();
+        }
+    }
+
+    @Test
+    public void categoryStats_followInsertsAndDeletes() throws IOException {
+        helper.createDatabase(TEST_DB, 2).close();
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, LATEST_VERSION, true, AppDatabase.MIGRATIONS);
+
+        // More answers than the rolling window: the oldest (wrong) ones fall out of it
+        int answers = CategoryStats.RECENT_WINDOW + 5;
+        for (int i = 0; i < answers; i++) {
+            insertHistory(db, "Chemistry", "Q" + i, i >= 5, i < 10 ? "session-a" : "session-b", 1000L + i);
+        }
+        assertStats(db, "Chemistry", answers, 5, CategoryStats.RECENT_WINDOW, 0);
+
+        db.execSQL("DELETE FROM quiz_history WHERE sessionId = 'session-b'");
+        assertStats(db, "Chemistry", 10, 5, 10, 5);
+
+        db.execSQL("UPDATE quiz_history SET isCorrect = 1 WHERE question = 'Q0'");
+        assertStats(db, "Chemistry", 10, 4, 10, 4);
+
+        db.execSQL("DELETE FROM quiz_history");
+        try (Cursor cursor = db.query("SELECT COUNT(*) FROM category_stats")) {
+            cursor.moveToFirst();
+            assertEquals(0, cursor.getInt(0));
+        }
+    }
+
+    @Test
+    public void sessionSummary_followInsertsUpdatesAndDeletes() throws IOException {
+        helper.createDatabase(TEST_DB, 2).close();
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, LATEST_VERSION, true, AppDatabase.MIGRATIONS);
+
+        insertHistory(db, "Algebra", "Q1", true, "session-a", 2000L);
+        insertHistory(db, "Algebra", "Q2", false, "session-a", 3000L);
+        // An earlier answer takes over the session's category and start time
+        insertHistory(db, "Geometry", "Q0", true, "session-a", 1000L);
+        insertHistory(db, "Algebra", "Q3", true, null, 4000L);
+        assertSession(db, "session-a", "Geometry", 1000L, 3, 2);
+
+        db.execSQL("UPDATE quiz_history SET isCorrect = 1 WHERE question = 'Q2'");
+        assertSession(db, "session-a", "Geometry", 1000L, 3, 3);
+
+        db.execSQL("DELETE FROM quiz_history WHERE question = 'Q0'");
+        assertSession(db, "session-a", "Algebra", 2000L, 2, 2);
+
+        db.execSQL("UPDATE quiz_history SET sessionId = 'session-b' WHERE question = 'Q1'");
+        assertSession(db, "session-a", "Algebra", 3000L, 1, 1);
+        assertSession(db, "session-b", "Algebra", 2000L, 1, 1);
+
+        db.execSQL("DELETE FROM quiz_history");
+        try (Cursor cursor = db.query("SELECT COUNT(*) FROM session_summary")) {
+            cursor.moveToFirst();
+            assertEquals(0, cursor.getInt(0));
+        }
+    }
+
+    @Test
+    public void migrate3ToLatest_keepsQuestionBank() throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 3);
+        ContentValues values = new ContentValues();
+        values.put("subjectKey", "photosynthesis");
+        values.put("subject", "Photosynthesis");
+        values.put("question", "Where does photosynthesis happen?");
+        values.put("options", "[\"Chloroplast\",\"Nucleus\",\"Ribosome\",\"Golgi\"]");
+        values.put("answerIndex", 0);
+        values.put("createdAt", 1000L);
+        values.put("lastUsedAt", 1000L);
+        values.put("useCount", 0);
+        db.insert("generated_questions", SQLiteDatabase.CONFLICT_ABORT, values);
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, LATEST_VERSION, true, AppDatabase.MIGRATIONS);
+
+        try (Cursor cursor = db.query("SELECT subjectKey, answerIndex FROM generated_questions")) {
+            assertEquals(1, cursor.getCount());
+            cursor.moveToFirst();
+            assertEquals("photosynthesis", cursor.getString(0));
+            assertEquals(0, cursor.getInt(1));
+        }
+    }
+
+    @Test
+    public void hotQueries_useIndices() throws IOException {
+        helper.createDatabase(TEST_DB, 2).close();
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, LATEST_VERSION, true, AppDatabase.MIGRATIONS);
+
+        // getWeakQuestions
+        assertPlanUses(db, "index_quiz_history_category_isCorrect_lastReviewed",
+                "SELECT * FROM quiz_history WHERE category IN ('Biology', 'History') AND isCorrect = 0 " +
+                "ORDER BY lastReviewed ASC, reviewCount ASC LIMIT 10");
+        // getDueQuestions
+        assertPlanUses(db, "index_quiz_history_category_dueAt",
+                "SELECT * FROM quiz_history WHERE category IN ('Biology', 'History') AND dueAt <= 5000 " +
+                "ORDER BY dueAt ASC LIMIT 20");
+        // getQuestionsByCategories (either category index is a valid choice)
+        assertPlanUses(db, "index_quiz_history_category_",
+                "SELECT * FROM quiz_history WHERE category IN ('Biology', 'History') " +
+                "ORDER BY lastReviewed ASC, reviewCount ASC LIMIT 10");
+        // getQuestionsBySession / getQuestionsBySessionPage
+        assertPlanUses(db, "index_quiz_history_sessionId_timestamp",
+                "SELECT * FROM quiz_history WHERE sessionId = 'session-1' ORDER BY timestamp ASC");
+        assertPlanUses(db, "index_quiz_history_sessionId_timestamp",
+                "SELECT * FROM quiz_history WHERE sessionId = 'session-1' " +
+                "AND (timestamp > 0 OR (timestamp = 0 AND id > 0)) ORDER BY timestamp ASC, id ASC LIMIT 20");
+        // getQuestionsBySessionPageBefore
+        assertPlanUses(db, "index_quiz_history_sessionId_timestamp",
+                "SELECT * FROM quiz_history WHERE sessionId = 'session-1' " +
+                "AND (timestamp < 5000 OR (timestamp = 5000 AND id < 10)) ORDER BY timestamp DESC, id DESC LIMIT 20");
+        // getSessionSummariesPage
+        assertPlanUses(db, "index_session_summary_timestamp_sessionId",
+                "SELECT * FROM session_summary WHERE timestamp <= 5000 " +
+                "AND (timestamp < 5000 OR sessionId < 'session-1') " +
+                "ORDER BY timestamp DESC, sessionId DESC LIMIT 20");
+        // getSessionSummariesPageAfter
+        assertPlanUses(db, "index_session_summary_timestamp_sessionId",
+                "SELECT * FROM session_summary WHERE timestamp >= 5000 " +
+                "AND (timestamp > 5000 OR sessionId > 'session-1') " +
+                "ORDER BY timestamp ASC, sessionId ASC LIMIT 20");
+        // session_summary recount after a delete
+        assertPlanUses(db, "index_quiz_history_sessionId_timestamp",
+                "SELECT sessionId, category, MIN(timestamp), COUNT(*), SUM(isCorrect = 1) " +
+                "FROM quiz_history WHERE sessionId = 'session-1' GROUP BY sessionId");
+        // deleteBySessionId
+        assertPlanUses(db, "index_quiz_history_sessionId_timestamp",
+                "DELETE FROM quiz_history WHERE sessionId = 'session-1'");
+        // category_stats rolling window
+        assertPlanUses(db, "index_quiz_history_category_timestamp",
+                "SELECT isCorrect FROM quiz_history WHERE category = 'Biology' " +
+                "ORDER BY timestamp DESC, id DESC LIMIT " + CategoryStats.RECENT_WINDOW);
+        // getAllHistory
+        assertPlanUses(db, "index_quiz_history_timestamp",
+                "SELECT * FROM quiz_history ORDER BY timestamp DESC");
+        // QuestionBankDao.trimToSize
+        assertPlanUses(db, "index_generated_questions_lastUsedAt",
+                "DELETE FROM generated_questions WHERE id NOT IN " +
+                "(SELECT id FROM generated_questions ORDER BY lastUsedAt DESC LIMIT 1000)");
+    }
+
+    @Test
+    public void transcriptTail_walksPrimaryKey() throws IOException {
+        helper.createDatabase(TEST_DB, 3).close();
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, LATEST_VERSION, true, AppDatabase.MIGRATIONS);
+
+        for (int id = 1; id <= 50; id++) {
+            ContentValues values = new ContentValues();
+            values.put("id", id);
+            values.put("role", "assistant");
+            values.put("content", "Message " + id);
+            values.put("createdAt", 1000L + id);
+            db.insert("chat_transcript", SQLiteDatabase.CONFLICT_ABORT, values);
+        }
+        try (Cursor cursor = db.query("SELECT id FROM chat_transcript ORDER BY id DESC LIMIT 30")) {
+            assertEquals(30, cursor.getCount());
+            cursor.moveToFirst();
+            assertEquals(50, cursor.getLong(0));
+        }
+        // getTail: no sort step, the rowid order is read backwards
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = db.query("EXPLAIN QUERY PLAN SELECT * FROM chat_transcript ORDER BY id DESC LIMIT 30")) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(detail)).append('\n');
+            }
+        }
+        assertTrue("Unexpected sort in plan\n" + plan, plan.indexOf("TEMP B-TREE") < 0);
+
+        // trimTranscript keeps exactly the tail a restore reads
+        db.execSQL("DELETE FROM chat_transcript WHERE id < " +
+                "(SELECT MIN(id) FROM (SELECT id FROM chat_transcript ORDER BY id DESC LIMIT 30))");
+        try (Cursor cursor = db.query("SELECT COUNT(*), MIN(id) FROM chat_transcript")) {
+            cursor.moveToFirst();
+            assertEquals(30, cursor.getInt(0));
+            assertEquals(21, cursor.getLong(1));
+        }
+    }
+
+    private static void assertStats(SupportSQLiteDatabase db, String category, int total, int incorrect,
+                                    int recentTotal, int recentIncorrect) {
+        try (Cursor cursor = db.query("SELECT total, incorrect, recentTotal, recentIncorrect " +
+                "FROM category_stats WHERE category = ?", new Object[]{category})) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(total, cursor.getInt(0));
+            assertEquals(incorrect, cursor.getInt(1));
+            assertEquals(recentTotal, cursor.getInt(2));
+            assertEquals(recentIncorrect, cursor.getInt(3));
+        }
+    }
+
+    private static void assertSession(SupportSQLiteDatabase db, String sessionId, String category, long timestamp,
+                                      int totalQuestions, int correctCount) {
+        try (Cursor cursor = db.query("SELECT category, timestamp, totalQuestions, correctCount " +
+                "FROM session_summary WHERE sessionId = ?", new Object[]{sessionId})) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(category, cursor.getString(0));
+            assertEquals(timestamp, cursor.getLong(1));
+            assertEquals(totalQuestions, cursor.getInt(2));
+            assertEquals(correctCount, cursor.getInt(3));
+        }
+    }
+
+    private static void assertPlanUses(SupportSQLiteDatabase db, String index, String sql) {
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = db.query("EXPLAIN QUERY PLAN " + sql)) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(detail)).append('\n');
+            }
+        }
+        assertTrue("Expected " + index + " in plan for " + sql + "\n" + plan,
+                plan.indexOf(index) >= 0);
+    }
+
+    private static void insertHistory(SupportSQLiteDatabase db, String category, String question,
+                                      boolean correct, String sessionId, long timestamp) {
+        ContentValues values = new ContentValues();
+        values.put("category", category);
+        values.put("question", question);
+        values.put("userAnswer", "A");
+        values.put("correctAnswer", "A");
+        values.put("isCorrect", correct ? 1 : 0);
+        values.put("explanation", "");
+        values.put("timestamp", timestamp);
+        values.put("reviewCount", 0);
+        values.put("lastReviewed", timestamp);
+        values.put("sessionId", sessionId);
+        db.insert("quiz_history", SQLiteDatabase.CONFLICT_ABORT, values);
+    }
+}
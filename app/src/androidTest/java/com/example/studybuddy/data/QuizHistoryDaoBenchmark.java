@@ -0,0 +1,136 @@
+package com.example.studybuddy.data;
+
+import android.content.Context;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Times the QuizHistoryDao and CategoryStatsDao queries the app runs against a synthetic 100k-row
+ * quiz_history (in memory, triggers included). Results land in
+ * build/outputs/connected_android_test_additional_output as JSON, with time and allocations per query.
+ */
+@RunWith(AndroidJUnit4.class)
+public class QuizHistoryDaoBenchmark {
+    private static final int ROWS = 100_000;
+    private static final int SESSION_SIZE = 10;
+    private static final long DAY_MS = 86400000L;
+    private static final long NOW = 1_700_000_000_000L;
+    private static final String[] CATEGORIES = {
+            "Biology", "Chemistry", "Physics", "World History", "US History", "Geography", "Algebra",
+            "Geometry", "Calculus", "Statistics", "Literature", "Grammar", "Economics", "Psychology",
+            "Computer Science", "Astronomy", "Earth Science", "Art History", "Music Theory", "Spanish"};
+    private static final List<String> WEAK = Arrays.asList("Biology", "Calculus", "Spanish");
+
+    private static AppDatabase db;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @BeforeClass
+    public static void seed() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .addCallback(AppDatabase.CALLBACK)
+                .build();
+
+        // Fixed seed: every run and every device queries the same table
+        Random random = new Random(42);
+        String[] options = {"Option A", "Option B", "Option C", "Option D"};
+        List<QuizHistory> batch = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            QuizHistory row = new QuizHistory(CATEGORIES[(i / SESSION_SIZE) % CATEGORIES.length],
+                    "Synthetic question " + i + "?", "B", "A", random.nextInt(3) > 0,
+                    "Synthetic explanation " + i + ".");
+            row.options = options;
+            row.sessionId = "session_" + (i / SESSION_SIZE);
+            row.timestamp = NOW - (ROWS - i) * 60000L;
+            row.lastReviewed = row.timestamp + random.nextInt(30) * DAY_MS;
+            row.dueAt = row.lastReviewed + random.nextInt(30) * DAY_MS;
+            batch.add(row);
+            if (batch.size() == 1000) {
+                db.quizHistoryDao().insertAll(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    @AfterClass
+    public static void close() {
+        db.close();
+    }
+
+    @Test
+    public void getWeakQuestions() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            db.quizHistoryDao().getWeakQuestions(WEAK, 10);
+        }
+    }
+
+    @Test
+    public void getDueQuestions() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            db.quizHistoryDao().getDueQuestions(WEAK, NOW, 20);
+        }
+    }
+
+    @Test
+    public void getSessionSummariesPage() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            db.quizHistoryDao().getSessionSummariesPage(Long.MAX_VALUE, "", 20);
+        }
+    }
+
+    // The oldest 20 sessions: should cost the same as the first page
+    @Test
+    public void getSessionSummariesPage_last() {
+        BenchmarkState state = benchmarkRule.getState();
+        long timestamp = NOW - (ROWS - 20 * SESSION_SIZE) * 60000L;
+        while (state.keepRunning()) {
+            db.quizHistoryDao().getSessionSummariesPage(timestamp, "session_20", 20);
+        }
+    }
+
+    @Test
+    public void getQuestionsBySession() {
+        BenchmarkState state = benchmarkRule.getState();
+        String sessionId = "session_" + (ROWS / SESSION_SIZE / 2);
+        while (state.keepRunning()) {
+            db.quizHistoryDao().getQuestionsBySession(sessionId);
+        }
+    }
+
+    // Full-table aggregate, kept as the reference point for the trigger-maintained category_stats
+    @Test
+    public void getCategoryPerformance() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            db.quizHistoryDao().getCategoryPerformance();
+        }
+    }
+
+    @Test
+    public void categoryStats_getWeakCategories() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            db.categoryStatsDao().getWeakCategories();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.studybuddy;
+
+// Recognises the chat commands ReviewerService handles itself instead of sending them to Groq.
+// Matching walks a fixed phrase table with case-insensitive regionMatches on the original message,
+// so a message costs one scan per phrase and no lower-cased copies or regex compilation.
+public final class CommandMatcher {
+
+    public enum Intent {
+        GREETING,
+        WEAK_TOPICS,
+        QUIZ_ABOUT,
+        NONE
+    }
+
+    private enum Match {
+        // The whole message, ignoring surrounding whitespace
+        WHOLE,
+        // Anywhere in the message
+        CONTAINS,
+        // Anywhere, followed by at least one character on the same line
+        PREFIX
+    }
+
+    private static final class Rule {
+        final Intent intent;
+        final Match match;
+        final String phrase;
+
+        Rule(Intent intent, Match match, String phrase) {
+            this.intent = intent;
+            this.match = match;
+            this.phrase = phrase;
+        }
+    }
+
+    static final String QUIZ_PREFIX = "quiz me about ";
+
+    // First matching rule wins, so weak-topic phrases take precedence over "quiz me about"
+    private static final Rule[] RULES = {
+            new Rule(Intent.GREETING, Match.WHOLE, "hi"),
+            new Rule(Intent.GREETING, Match.WHOLE, "hello"),
+            new Rule(Intent.GREETING, Match.WHOLE, "hey"),
+            new Rule(Intent.WEAK_TOPICS, Match.CONTAINS, "ap reviewer"),
+            new Rule(Intent.WEAK_TOPICS, Match.CONTAINS, "review my weak topics"),
+            new Rule(Intent.WEAK_TOPICS, Match.CONTAINS, "review my mistakes"),
+            new Rule(Intent.WEAK_TOPICS, Match.CONTAINS, "focus on weak areas"),
+            new Rule(Intent.WEAK_TOPICS, Match.CONTAINS, "weak topics"),
+            new Rule(Intent.QUIZ_ABOUT, Match.PREFIX, QUIZ_PREFIX),
+    };
+
+    private CommandMatcher() {
+    }
+
+    public static Intent match(String message) {
+        int start = trimStart(message);
+        int end = trimEnd(message, start);
+        for (Rule rule : RULES) {
+            switch (rule.match) {
+                case WHOLE:
+                    if (end - start == rule.phrase.length()
+                            && message.regionMatches(true, start, rule.phrase, 0, rule.phrase.length())) {
+                        return rule.intent;
+                    }
+                    break;
+                case CONTAINS:
+                    if (indexOfIgnoreCase(message, rule.phrase, 0) >= 0) {
+                        return rule.intent;
+                    }
+                    break;
+                case PREFIX:
+                    if (argumentStart(message, rule.phrase) >= 0) {
+                        return rule.intent;
+                    }
+                    break;
+            }
+        }
+        return Intent.NONE;
+    }
+
+    // The rest of the line after "quiz me about ", trimmed; null if the message doesn't have one
+    public static String quizSubject(String message) {
+        int start = argumentStart(message, QUIZ_PREFIX);
+        if (start < 0) {
+            return null;
+        }
+        int end = start;
+        while (end < message.length() && !isLineTerminator(message.charAt(end))) {
+            end++;
+        }
+        return message.substring(start, end).trim();
+    }
+
+    // Index just past the first occurrence of phrase that has text after it on the same line, or -1
+    private static int argumentStart(String message, String phrase) {
+        int from = 0;
+        int found;
+        while ((found = indexOfIgnoreCase(message, phrase, from)) >= 0) {
+            int start = found + phrase.length();
+            if (start < message.length() && !isLineTerminator(message.charAt(start))) {
+                return start;
+            }
+            from = found + 1;
+        }
+        return -1;
+    }
+
+    static int indexOfIgnoreCase(String text, String phrase, int from) {
+        int last = text.length() - phrase.length();
+        char first = phrase.charAt(0);
+        for (int i = from; i <= last; i++) {
+            char c = text.charAt(i);
+            if ((c == first || Character.toLowerCase(c) == first)
+                    && text.regionMatches(true, i, phrase, 0, phrase.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Same characters as String.trim()
+    private static int trimStart(String text) {
+        int start = 0;
+        while (start < text.length() && text.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(String text, int start) {
+        int end = text.length();
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    // The characters regex '.' doesn't match
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
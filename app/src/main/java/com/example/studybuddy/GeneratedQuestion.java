@@ -0,0 +1,30 @@
+package com.example.studybuddy;
+
+public class GeneratedQuestion {
+    public String question;
+    public String[] options;
+    // Index into options of the correct answer, or -1 when the generator didn't provide one
+    public int answerIndex = -1;
+    public String explanation;
+
+    public GeneratedQuestion(String question, String[] options) {
+        this.question = question;
+        this.options = options;
+    }
+
+    public boolean hasAnswerKey() {
+        return answerIndex >= 0 && options != null && answerIndex < options.length && options[answerIndex] != null;
+    }
+
+    public boolean isComplete() {
+        if (question == null || question.isEmpty() || options == null || options.length < 4) {
+            return false;
+        }
+        for (int i = 0; i < 4; i++) {
+            if (options[i] == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -6,23 +6,30 @@ import android.view.MenuItem;
 import android.view.View;
 import android.widget.TextView;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.paging.LoadState;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingLiveData;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.studybuddy.data.AppDatabase;
-import com.example.studybuddy.data.QuizHistory;
 import com.example.studybuddy.data.QuizHistoryDao;
+import com.example.studybuddy.data.SessionSummary;
+import com.example.studybuddy.data.SessionSummaryPagingSource;
 import com.google.android.material.appbar.MaterialToolbar;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.ExecutorService;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 import java.util.concurrent.Executors;
+import kotlin.Unit;
 
 public class HistoryActivity extends AppCompatActivity {
+    static final int PAGE_SIZE = 20;
+
     private RecyclerView recyclerView;
     private QuizSessionAdapter adapter;
     private AppDatabase database;
     private QuizHistoryDao dao;
-    private ExecutorService executorService;
+    private ListeningExecutorService executorService;
     private MaterialToolbar toolbar;
 
     @Override
@@ -40,7 +47,7 @@ public class HistoryActivity extends AppCompatActivity {
 
         database = AppDatabase.getDatabase(this);
         dao = database.quizHistoryDao();
-        executorService = Executors.newSingleThreadExecutor();
+        executorService = MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
 
         toolbar = findViewById(com.example.studybuddy.R.id.toolbar);
         setSupportActionBar(toolbar);
@@ -52,7 +59,7 @@ public class HistoryActivity extends AppCompatActivity {
         recyclerView = findViewById(com.example.studybuddy.R.id.recyclerViewHistory);
         TextView emptyText = findViewById(com.example.studybuddy.R.id.textEmpty);
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
-        adapter = new QuizSessionAdapter(new ArrayList<>(), new QuizSessionAdapter.OnSessionClickListener() {
+        adapter = new QuizSessionAdapter(new QuizSessionAdapter.OnSessionClickListener() {
             @Override
             public void onSessionClick(String sessionId) {
                 Intent intent = new Intent(HistoryActivity.this, QuizSessionDetailActivity.class);
@@ -68,19 +75,14 @@ public class HistoryActivity extends AppCompatActivity {
         });
         recyclerView.setAdapter(adapter);
 
-        // Show empty message if no history
-        adapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
-            @Override
-            public void onChanged() {
-                super.onChanged();
-                if (adapter.getItemCount() == 0) {
-                    emptyText.setVisibility(View.VISIBLE);
-                    recyclerView.setVisibility(View.GONE);
-                } else {
-                    emptyText.setVisibility(View.GONE);
-                    recyclerView.setVisibility(View.VISIBLE);
-                }
+        // Show empty message if no history once the first page has loaded
+        adapter.addLoadStateListener(states -> {
+            if (states.getRefresh() instanceof LoadState.NotLoading) {
+                boolean empty = adapter.getItemCount() == 0;
+                emptyText.setVisibility(empty ? View.VISIBLE : View.GONE);
+                recyclerView.setVisibility(empty ? View.GONE : View.VISIBLE);
             }
+            return Unit.INSTANCE;
         });
 
         loadHistory();
@@ -102,7 +104,7 @@ public class HistoryActivity extends AppCompatActivity {
         executorService.execute(() -> {
             try {
                 dao.deleteBySessionId(sessionId);
-                runOnUiThread(() -> loadHistory());
+                runOnUiThread(() -> adapter.refresh());
             } catch (Exception e) {
                 e.printStackTrace();
             }
@@ -110,36 +112,12 @@ public class HistoryActivity extends AppCompatActivity {
     }
 
     private void loadHistory() {
-        executorService.execute(() -> {
-            try {
-                List<String> sessionIds = dao.getAllSessionIds();
-                List<QuizSession> sessions = new ArrayList<>();
-
-                for (String sessionId : sessionIds) {
-                    List<QuizHistory> questions = dao.getQuestionsBySession(sessionId);
-                    if (questions != null && !questions.isEmpty()) {
-                        QuizSession session = new QuizSession();
-                        session.sessionId = sessionId;
-                        session.questions = questions;
-                        session.category = questions.get(0).category != null ? questions.get(0).category : "General";
-                        session.timestamp = questions.get(0).timestamp;
-                        session.totalQuestions = questions.size();
-                        int correctCount = 0;
-                        for (QuizHistory q : questions) {
-                            if (q.isCorrect) correctCount++;
-                        }
-                        session.correctCount = correctCount;
-                        sessions.add(session);
-                    }
-                }
-
-                runOnUiThread(() -> {
-                    adapter.updateSessions(sessions);
-                });
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        });
+        // One aggregate row per session, PAGE_SIZE at a time; full rows load in QuizSessionDetailActivity
+        Pager<SessionSummary, SessionSummary> pager = new Pager<>(
+                new PagingConfig(PAGE_SIZE, PAGE_SIZE / 2, false),
+                () -> new SessionSummaryPagingSource(dao, executorService));
+        PagingLiveData.cachedIn(PagingLiveData.getLiveData(pager), getLifecycle())
+                .observe(this, sessions -> adapter.submitData(getLifecycle(), sessions));
     }
 
     @Override
@@ -158,13 +136,4 @@ public class HistoryActivity extends AppCompatActivity {
             executorService.shutdown();
         }
     }
-
-    static class QuizSession {
-        String sessionId;
-        String category;
-        long timestamp;
-        int totalQuestions;
-        int correctCount;
-        List<QuizHistory> questions;
-    }
 }
\ No newline at end of file
@@ -5,30 +5,24 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.studybuddy.data.QuizHistory;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.List;
 import java.util.Locale;
 
-public class HistoryAdapter extends RecyclerView.Adapter<HistoryAdapter.ViewHolder> {
-    private List<QuizHistory> historyList;
+public class HistoryAdapter extends PagingDataAdapter<QuizHistory, HistoryAdapter.ViewHolder> {
     private SimpleDateFormat dateFormat;
     private OnHistoryDeleteListener deleteListener;
     
-    public HistoryAdapter(List<QuizHistory> historyList, OnHistoryDeleteListener deleteListener) {
-        this.historyList = historyList != null ? historyList : new ArrayList<>();
+    public HistoryAdapter(OnHistoryDeleteListener deleteListener) {
+        super(DIFF_CALLBACK);
         this.dateFormat = new SimpleDateFormat("MMM dd, yyyy HH:mm", Locale.getDefault());
         this.deleteListener = deleteListener;
     }
     
-    public void updateHistory(List<QuizHistory> newHistory) {
-        this.historyList = newHistory != null ? newHistory : new ArrayList<>();
-        notifyDataSetChanged();
-    }
-    
     @NonNull
     @Override
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -39,7 +33,10 @@ public class HistoryAdapter extends RecyclerView.Adapter<HistoryAdapter.ViewHold
     
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        QuizHistory item = historyList.get(position);
+        QuizHistory item = getItem(position);
+        if (item == null) {
+            return;
+        }
         
         holder.categoryText.setText(item.category != null ? item.category : "General");
         holder.questionText.setText(item.question != null ? item.question : "");
@@ -48,23 +45,10 @@ public class HistoryAdapter extends RecyclerView.Adapter<HistoryAdapter.ViewHold
         holder.explanationText.setText(item.explanation != null ? item.explanation : "");
         
         // Show options if available
-        if (item.options != null && !item.options.isEmpty()) {
-            try {
-                String[] options = new com.google.gson.Gson().fromJson(item.options, String[].class);
-                if (options != null && options.length > 0) {
-                    StringBuilder optionsText = new StringBuilder("Options: ");
-                    for (int i = 0; i < options.length; i++) {
-                        optionsText.append((char)('A' + i)).append(") ").append(options[i]);
-                        if (i < options.length - 1) optionsText.append(", ");
-                    }
-                    holder.optionsText.setText(optionsText.toString());
-                    holder.optionsText.setVisibility(android.view.View.VISIBLE);
-                } else {
-                    holder.optionsText.setVisibility(android.view.View.GONE);
-                }
-            } catch (Exception e) {
-                holder.optionsText.setVisibility(android.view.View.GONE);
-            }
+        String optionsLabel = item.getOptionsLabel();
+        if (optionsLabel != null) {
+            holder.optionsText.setText(optionsLabel);
+            holder.optionsText.setVisibility(android.view.View.VISIBLE);
         } else {
             holder.optionsText.setVisibility(android.view.View.GONE);
         }
@@ -97,10 +81,25 @@ public class HistoryAdapter extends RecyclerView.Adapter<HistoryAdapter.ViewHold
         }
     }
     
-    @Override
-    public int getItemCount() {
-        return historyList.size();
-    }
+    // Compares what onBindViewHolder shows; review bookkeeping changes don't need a rebind
+    private static final DiffUtil.ItemCallback<QuizHistory> DIFF_CALLBACK = new DiffUtil.ItemCallback<QuizHistory>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull QuizHistory oldItem, @NonNull QuizHistory newItem) {
+            return oldItem.id == newItem.id;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull QuizHistory oldItem, @NonNull QuizHistory newItem) {
+            return oldItem.isCorrect == newItem.isCorrect
+                    && oldItem.timestamp == newItem.timestamp
+                    && java.util.Objects.equals(oldItem.question, newItem.question)
+                    && java.util.Objects.equals(oldItem.userAnswer, newItem.userAnswer)
+                    && java.util.Objects.equals(oldItem.correctAnswer, newItem.correctAnswer)
+                    && java.util.Objects.equals(oldItem.category, newItem.category)
+                    && java.util.Objects.equals(oldItem.explanation, newItem.explanation)
+                    && java.util.Objects.equals(oldItem.getOptionsLabel(), newItem.getOptionsLabel());
+        }
+    };
     
     static class ViewHolder extends RecyclerView.ViewHolder {
         TextView categoryText;
@@ -57,15 +57,14 @@ public class MainActivity extends AppCompatActivity {
 
         observeViewModel();
         
-        // Start session on launch
-        if (savedInstanceState == null) {
-            viewModel.startSession();
-        }
+        // Greets, or resumes a quiz interrupted by process death; a no-op after rotation
+        viewModel.startSession();
     }
 
     @Override
     public boolean onCreateOptionsMenu(Menu menu) {
         getMenuInflater().inflate(R.menu.main_menu, menu);
+        menu.findItem(R.id.menu_metrics).setVisible(BuildConfig.DEBUG);
         return true;
     }
 
@@ -125,6 +124,8 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onStop() {
         super.onStop();
+        // Don't leave answers buffered while the app is in the background
+        viewModel.flushPendingResults();
         // I-unregister at isara dialog
         if (networkReceiver != null) {
             unregisterReceiver(networkReceiver);
@@ -202,12 +203,16 @@ public class MainActivity extends AppCompatActivity {
         } else if (id == R.id.menu_logout) {
             showLogoutConfirmation();
             return true;
+        } else if (id == R.id.menu_metrics) {
+            startActivity(new Intent(this, MetricsActivity.class));
+            return true;
         }
         return super.onOptionsItemSelected(item);
     }
     
     private void setupRecyclerView() {
-        messageAdapter = new MessageAdapter();
+        messageAdapter = new MessageAdapter(viewModel.getMessageLog());
+        viewModel.getMessageLog().setListener(messageAdapter);
         messageAdapter.setOnOptionSelectedListener(option -> {
             // When user selects an option, send it as a message
             viewModel.sendMessage(option);
@@ -218,17 +223,30 @@ public class MainActivity extends AppCompatActivity {
         binding.recyclerViewMessages.setLayoutManager(layoutManager);
         binding.recyclerViewMessages.setAdapter(messageAdapter);
         
-        // Auto-scroll to bottom when new messages arrive
+        // Auto-scroll to bottom when new messages arrive or the last one grows while streaming
         messageAdapter.registerAdapterDataObserver(new androidx.recyclerview.widget.RecyclerView.AdapterDataObserver() {
             @Override
             public void onItemRangeInserted(int positionStart, int itemCount) {
                 super.onItemRangeInserted(positionStart, itemCount);
-                int messageCount = messageAdapter.getItemCount();
-                if (messageCount > 0) {
-                    binding.recyclerViewMessages.smoothScrollToPosition(messageCount - 1);
+                scrollToBottom();
+            }
+
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount) {
+                super.onItemRangeChanged(positionStart, itemCount);
+                if (positionStart + itemCount == messageAdapter.getItemCount()) {
+                    scrollToBottom();
                 }
             }
         });
+        scrollToBottom();
+    }
+
+    private void scrollToBottom() {
+        int messageCount = messageAdapter.getItemCount();
+        if (messageCount > 0) {
+            binding.recyclerViewMessages.smoothScrollToPosition(messageCount - 1);
+        }
     }
     
     private void setupInput() {
@@ -253,16 +271,6 @@ public class MainActivity extends AppCompatActivity {
     }
     
     private void observeViewModel() {
-        viewModel.getMessages().observe(this, messages -> {
-            messageAdapter.submitList(messages);
-            // Scroll to bottom after list is updated
-            if (messages != null && !messages.isEmpty()) {
-                binding.recyclerViewMessages.post(() -> {
-                    binding.recyclerViewMessages.smoothScrollToPosition(messages.size() - 1);
-                });
-            }
-        });
-        
         viewModel.getIsLoading().observe(this, isLoading -> {
             binding.progressIndicator.setVisibility(isLoading ? 
                 android.view.View.VISIBLE : android.view.View.GONE);
@@ -277,5 +285,11 @@ public class MainActivity extends AppCompatActivity {
             }
         });
     }
-}
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // The log outlives this activity (it belongs to the view model); stop it notifying a dead adapter
+        viewModel.getMessageLog().setListener(null);
+    }
+}
@@ -6,15 +6,16 @@ import android.view.ViewGroup;
 import android.widget.LinearLayout;
 import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat;
-import androidx.recyclerview.widget.DiffUtil;
-import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.studybuddy.api.ChatMessage;
 import com.example.studybuddy.databinding.ItemMessageBinding;
 import com.example.studybuddy.databinding.ItemMessageWithOptionsBinding;
 import com.example.studybuddy.R;
 
-public class MessageAdapter extends ListAdapter<ChatMessage, RecyclerView.ViewHolder> {
+// Renders a MessageLog. The log reports single-item changes and ids are stable, so new messages
+// and streamed updates rebind only the row that changed.
+public class MessageAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> implements MessageLog.Listener {
+    private final MessageLog log;
     private OnOptionSelectedListener optionListener;
     
     private static final int TYPE_NORMAL = 0;
@@ -24,14 +25,49 @@ public class MessageAdapter extends ListAdapter<ChatMessage, RecyclerView.ViewHo
         void onOptionSelected(String option);
     }
     
-    public MessageAdapter() {
-        super(new MessageDiffCallback());
+    public MessageAdapter(MessageLog log) {
+        this.log = log;
+        setHasStableIds(true);
     }
     
     public void setOnOptionSelectedListener(OnOptionSelectedListener listener) {
         this.optionListener = listener;
     }
     
+    @Override
+    public int getItemCount() {
+        return log.size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return log.get(position).id;
+    }
+
+    private ChatMessage getItem(int position) {
+        return log.get(position);
+    }
+
+    @Override
+    public void onInserted(int position) {
+        notifyItemInserted(position);
+    }
+
+    @Override
+    public void onChanged(int position) {
+        notifyItemChanged(position);
+    }
+
+    @Override
+    public void onRemoved(int position) {
+        notifyItemRemoved(position);
+    }
+
+    @Override
+    public void onReset() {
+        notifyDataSetChanged();
+    }
+
     @Override
     public int getItemViewType(int position) {
         ChatMessage message = getItem(position);
@@ -128,11 +164,12 @@ public class MessageAdapter extends ListAdapter<ChatMessage, RecyclerView.ViewHo
             // Show options
             String[] options = message.options;
             if (options != null && options.length >= 4) {
-                // Ensure buttons are enabled when (re)binding a question with options
-                binding.buttonOptionA.setEnabled(true);
-                binding.buttonOptionB.setEnabled(true);
-                binding.buttonOptionC.setEnabled(true);
-                binding.buttonOptionD.setEnabled(true);
+                // Buttons stay disabled once the question has been answered, however often it is rebound
+                boolean enabled = !message.answered;
+                binding.buttonOptionA.setEnabled(enabled);
+                binding.buttonOptionB.setEnabled(enabled);
+                binding.buttonOptionC.setEnabled(enabled);
+                binding.buttonOptionD.setEnabled(enabled);
 
                 binding.optionsContainer.setVisibility(View.VISIBLE);
                 binding.buttonOptionA.setText("A) " + options[0]);
@@ -142,6 +179,10 @@ public class MessageAdapter extends ListAdapter<ChatMessage, RecyclerView.ViewHo
                 
                 // Set click listeners
                 View.OnClickListener optionClick = v -> {
+                    if (message.answered) {
+                        return;
+                    }
+                    message.answered = true;
                     if (listener != null) {
                         String selected = "";
                         if (v == binding.buttonOptionA) selected = options[0];
@@ -177,17 +218,4 @@ public class MessageAdapter extends ListAdapter<ChatMessage, RecyclerView.ViewHo
             );
         }
     }
-    
-    static class MessageDiffCallback extends DiffUtil.ItemCallback<ChatMessage> {
-        @Override
-        public boolean areItemsTheSame(@NonNull ChatMessage oldItem, @NonNull ChatMessage newItem) {
-            return oldItem == newItem;
-        }
-        
-        @Override
-        public boolean areContentsTheSame(@NonNull ChatMessage oldItem, @NonNull ChatMessage newItem) {
-            return oldItem.content.equals(newItem.content) && 
-                   oldItem.role.equals(newItem.role);
-        }
-    }
 }
@@ -0,0 +1,151 @@
+package com.example.studybuddy;
+
+import android.os.Handler;
+import android.os.Looper;
+import com.example.studybuddy.api.ChatMessage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// The chat transcript shown by MessageAdapter. Any thread can append, replace or remove a message;
+// ids are handed out in call order, and each change is applied on the main thread and reported to
+// the listener as a single-item event, so posting a message costs the same however long the chat is.
+public class MessageLog {
+
+    public interface Listener {
+        void onInserted(int position);
+
+        void onChanged(int position);
+
+        void onRemoved(int position);
+
+        void onReset();
+    }
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private long nextId = 1;
+
+    // Main thread only
+    private final List<ChatMessage> messages = new ArrayList<>();
+    private Listener listener;
+
+    // Adds the message at the end; returns the id it was given
+    public synchronized long append(ChatMessage message) {
+        long id = assignId(message);
+        mainHandler.post(() -> {
+            messages.add(message);
+            if (listener != null) {
+                listener.onInserted(messages.size() - 1);
+            }
+        });
+        return id;
+    }
+
+    // Adds the message just before anchorId (e.g. a reply that is still streaming), or at the end
+    // if anchorId is no longer in the log
+    public synchronized long insertBefore(long anchorId, ChatMessage message) {
+        long id = assignId(message);
+        mainHandler.post(() -> {
+            int position = indexOf(anchorId);
+            if (position < 0) {
+                position = messages.size();
+            }
+            messages.add(position, message);
+            if (listener != null) {
+                listener.onInserted(position);
+            }
+        });
+        return id;
+    }
+
+    // Swaps in a new version of the message with this id; it keeps the id and its position.
+    // Identical contents don't trigger a rebind.
+    public synchronized void replace(long id, ChatMessage message) {
+        message.id = id;
+        mainHandler.post(() -> {
+            int position = indexOf(id);
+            if (position < 0) {
+                return;
+            }
+            ChatMessage old = messages.set(position, message);
+            if (listener != null && !sameContents(old, message)) {
+                listener.onChanged(position);
+            }
+        });
+    }
+
+    public synchronized void remove(long id) {
+        mainHandler.post(() -> {
+            int position = indexOf(id);
+            if (position < 0) {
+                return;
+            }
+            messages.remove(position);
+            if (listener != null) {
+                listener.onRemoved(position);
+            }
+        });
+    }
+
+    // Replaces the log with messages that already have ids (a restored transcript); new ids continue after them
+    public synchronized void restore(List<ChatMessage> restored) {
+        for (ChatMessage message : restored) {
+            nextId = Math.max(nextId, message.id + 1);
+        }
+        List<ChatMessage> copy = new ArrayList<>(restored);
+        mainHandler.post(() -> {
+            messages.clear();
+            messages.addAll(copy);
+            if (listener != null) {
+                listener.onReset();
+            }
+        });
+    }
+
+    public synchronized void clear() {
+        mainHandler.post(() -> {
+            messages.clear();
+            if (listener != null) {
+                listener.onReset();
+            }
+        });
+    }
+
+    // Main thread only
+    public int size() {
+        return messages.size();
+    }
+
+    // Main thread only
+    public ChatMessage get(int position) {
+        return messages.get(position);
+    }
+
+    // Main thread only; the listener sees the log as it is now and every change after
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    private long assignId(ChatMessage message) {
+        message.id = nextId++;
+        return message.id;
+    }
+
+    // Changes are almost always to the newest messages, so search from the end
+    private int indexOf(long id) {
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            if (messages.get(i).id == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static boolean sameContents(ChatMessage a, ChatMessage b) {
+        return a.role.equals(b.role)
+                && (a.content == null ? b.content == null : a.content.equals(b.content))
+                && Arrays.equals(a.options, b.options)
+                && a.streaming == b.streaming
+                && a.answered == b.answered;
+    }
+}
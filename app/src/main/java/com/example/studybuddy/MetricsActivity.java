@@ -0,0 +1,84 @@
+package com.example.studybuddy;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.view.Menu;
+import android.view.MenuItem;
+import android.widget.TextView;
+import androidx.appcompat.app.AppCompatActivity;
+import com.example.studybuddy.api.GroqApiService;
+import com.example.studybuddy.api.GroqMetrics;
+import com.google.android.material.appbar.MaterialToolbar;
+
+// Debug screen for GroqMetrics: per call type latency, time-to-first-byte and token histograms
+// for this process, plus a JSON dump that can be shared off the device, and the task lane stats
+public class MetricsActivity extends AppCompatActivity {
+    private TextView metricsText;
+    private GroqMetrics metrics;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_metrics);
+
+        metrics = GroqApiService.Factory.metrics();
+
+        MaterialToolbar toolbar = findViewById(R.id.toolbar);
+        setSupportActionBar(toolbar);
+        if (getSupportActionBar() != null) {
+            getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+            getSupportActionBar().setTitle("Groq Metrics");
+        }
+
+        metricsText = findViewById(R.id.textMetrics);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        render();
+    }
+
+    private void render() {
+        StringBuilder text = new StringBuilder(metrics.summary())
+                .append('\n').append(GroqApiService.Factory.diagnostics().overheadSummary()).append("\n\n");
+        TaskScheduler scheduler = TaskScheduler.current();
+        if (scheduler != null) {
+            text.append("TASK LANES\n");
+            for (TaskScheduler.Lane lane : TaskScheduler.Lane.values()) {
+                text.append("  ").append(scheduler.getStats(lane)).append('\n');
+            }
+        }
+        metricsText.setText(text);
+    }
+
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.metrics_menu, menu);
+        return true;
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        int id = item.getItemId();
+        if (id == android.R.id.home) {
+            finish();
+            return true;
+        } else if (id == R.id.menu_metrics_refresh) {
+            render();
+            return true;
+        } else if (id == R.id.menu_metrics_share) {
+            Intent intent = new Intent(Intent.ACTION_SEND);
+            intent.setType("application/json");
+            intent.putExtra(Intent.EXTRA_SUBJECT, "StudyBuddy Groq metrics");
+            intent.putExtra(Intent.EXTRA_TEXT, metrics.toJson());
+            startActivity(Intent.createChooser(intent, "Share metrics"));
+            return true;
+        } else if (id == R.id.menu_metrics_reset) {
+            metrics.reset();
+            render();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.studybuddy;
+
+import com.example.studybuddy.data.CachedQuestion;
+import com.example.studybuddy.data.QuestionBankDao;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+// Persistent cache of generated questions so repeat subjects start instantly and work offline.
+// Reads happen on the caller's lane because a question is waiting on them; every write (inserts,
+// use counts, eviction) is queued on the database lane so it never holds up showing a question.
+public class QuestionBank {
+    private static final String TAG = "QuestionBank";
+
+    static final long TTL_MS = TimeUnit.DAYS.toMillis(30);
+    static final int MAX_ROWS = 1000;
+    // Refill a subject in the background once fewer than this many unused questions remain
+    static final int REFILL_THRESHOLD = ReviewSession.QUESTION_BATCH_SIZE;
+    // Rows stored between evictions, so the table can overshoot MAX_ROWS by at most this much
+    static final int EVICT_EVERY_ROWS = 100;
+
+    private final QuestionBankDao dao;
+    private final TaskScheduler scheduler;
+    // Only touched on the database lane
+    private int storedSinceEvict;
+
+    public QuestionBank(QuestionBankDao dao, TaskScheduler scheduler) {
+        this.dao = dao;
+        this.scheduler = scheduler;
+        // The first store of the process evicts whatever expired since the last run
+        this.storedSinceEvict = EVICT_EVERY_ROWS;
+    }
+
+    // "  Photosynthesis!" and "the photosynthesis" both map to "photosynthesis"
+    public static String normalizeSubject(String subject) {
+        if (subject == null) {
+            return "";
+        }
+        StringBuilder key = new StringBuilder(subject.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < subject.length(); i++) {
+            char c = subject.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && key.length() > 0) {
+                    key.append(' ');
+                }
+                key.append(Character.toLowerCase(c));
+                pendingSpace = false;
+            } else {
+                pendingSpace = true;
+            }
+        }
+        if (key.length() > 4 && key.indexOf("the ") == 0) {
+            key.delete(0, 4);
+        }
+        return key.toString();
+    }
+
+    // Returns up to limit cached questions for the subject, least used first, and marks them used
+    public List<GeneratedQuestion> take(String subject, List<String> exclude, int limit) {
+        return take(subject, exclude, limit, minCreatedAt());
+    }
+
+    // Same as take() but ignores the TTL; used when Groq is unavailable and an old question beats none
+    public List<GeneratedQuestion> takeStale(String subject, List<String> exclude, int limit) {
+        return take(subject, exclude, limit, 0);
+    }
+
+    private List<GeneratedQuestion> take(String subject, List<String> exclude, int limit, long minCreatedAt) {
+        String subjectKey = normalizeSubject(subject);
+        if (subjectKey.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        // Filtered here rather than with NOT IN: a long session would bind more variables than SQLite
+        // allows, and asked questions are matched ignoring case like ReviewSession.wasAsked()
+        Set<String> excluded = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        if (exclude != null) {
+            for (String question : exclude) {
+                if (question != null) {
+                    excluded.add(question);
+                }
+            }
+        }
+        List<CachedQuestion> rows;
+        try {
+            // Each excluded question can use up at most one row of the page
+            rows = dao.getQuestions(subjectKey, minCreatedAt, limit + excluded.size());
+        } catch (Exception e) {
+            android.util.Log.e(TAG, "Error reading question bank", e);
+            return Collections.emptyList();
+        }
+        List<GeneratedQuestion> questions = new ArrayList<>(limit);
+        List<Long> ids = new ArrayList<>(limit);
+        for (CachedQuestion row : rows) {
+            if (questions.size() == limit) {
+                break;
+            }
+            if (row.question == null || excluded.contains(row.question)) {
+                continue;
+            }
+            GeneratedQuestion question = toQuestion(row);
+            if (question != null) {
+                questions.add(question);
+                ids.add(row.id);
+            }
+        }
+        if (!ids.isEmpty()) {
+            long now = System.currentTimeMillis();
+            scheduler.submit(TaskScheduler.Lane.DATABASE, () -> {
+                try {
+                    dao.markUsed(ids, now);
+                } catch (Exception e) {
+                    android.util.Log.e(TAG, "Error updating question bank", e);
+                }
+            });
+        }
+        return questions;
+    }
+
+    // Copies the questions into rows on the calling thread and inserts them on the database lane
+    public void store(String subject, List<GeneratedQuestion> questions) {
+        String subjectKey = normalizeSubject(subject);
+        if (subjectKey.isEmpty() || questions == null || questions.isEmpty()) {
+            return;
+        }
+        List<CachedQuestion> rows = new ArrayList<>(questions.size());
+        for (GeneratedQuestion question : questions) {
+            CachedQuestion row = new CachedQuestion();
+            row.subjectKey = subjectKey;
+            row.subject = subject;
+            row.question = question.question;
+            row.options = question.options;
+            row.answerIndex = question.answerIndex;
+            row.explanation = question.explanation;
+            rows.add(row);
+        }
+        scheduler.submit(TaskScheduler.Lane.DATABASE, TaskScheduler.Priority.LOW, () -> {
+            try {
+                dao.insertAll(rows);
+                storedSinceEvict += rows.size();
+                if (storedSinceEvict >= EVICT_EVERY_ROWS) {
+                    storedSinceEvict = 0;
+                    evict();
+                }
+            } catch (Exception e) {
+                android.util.Log.e(TAG, "Error writing question bank", e);
+            }
+        });
+    }
+
+    public boolean needsRefill(String subject) {
+        String subjectKey = normalizeSubject(subject);
+        if (subjectKey.isEmpty()) {
+            return false;
+        }
+        try {
+            return dao.countUnused(subjectKey, minCreatedAt()) < REFILL_THRESHOLD;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    // TTL first, then least recently used rows beyond the size cap (walks the lastUsedAt index);
+    // must run on the database lane
+    public void evict() {
+        dao.deleteExpired(minCreatedAt());
+        dao.trimToSize(MAX_ROWS);
+    }
+
+    private static long minCreatedAt() {
+        return System.currentTimeMillis() - TTL_MS;
+    }
+
+    private GeneratedQuestion toQuestion(CachedQuestion row) {
+        try {
+            GeneratedQuestion question = new GeneratedQuestion(row.question, row.options);
+            if (!question.isComplete()) {
+                return null;
+            }
+            question.answerIndex = row.answerIndex;
+            question.explanation = row.explanation;
+            return question;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
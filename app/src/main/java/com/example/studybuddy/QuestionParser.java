@@ -0,0 +1,225 @@
+package com.example.studybuddy;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.util.ArrayList;
+import java.util.List;
+
+// Parses generator output into questions. Kept free of Android classes so it can be unit tested on the JVM.
+public final class QuestionParser {
+
+    private QuestionParser() {
+    }
+
+    // Accepts {"questions": [...]}, a bare JSON array, a single question object, or plain text
+    public static List<GeneratedQuestion> parseBatch(String response) {
+        List<GeneratedQuestion> questions = new ArrayList<>();
+        if (response == null || response.trim().isEmpty()) {
+            return questions;
+        }
+
+        String trimmed = response.trim();
+        JsonElement root = parseJson(trimmed);
+        if (root == null) {
+            // Model wrapped the JSON in prose or a code fence; retry with just the outermost brackets
+            root = parseJson(extractJson(trimmed));
+        }
+
+        if (root == null) {
+            GeneratedQuestion single = parsePlainText(trimmed);
+            if (single.isComplete()) {
+                questions.add(single);
+            }
+            return questions;
+        }
+
+        JsonArray items = null;
+        if (root.isJsonArray()) {
+            items = root.getAsJsonArray();
+        } else if (root.isJsonObject()) {
+            JsonObject object = root.getAsJsonObject();
+            if (object.has("questions") && object.get("questions").isJsonArray()) {
+                items = object.getAsJsonArray("questions");
+            } else {
+                GeneratedQuestion single = fromJson(object);
+                if (single != null) {
+                    questions.add(single);
+                }
+            }
+        }
+
+        if (items != null) {
+            for (JsonElement item : items) {
+                if (item != null && item.isJsonObject()) {
+                    GeneratedQuestion question = fromJson(item.getAsJsonObject());
+                    if (question != null) {
+                        questions.add(question);
+                    }
+                }
+            }
+        }
+        return questions;
+    }
+
+    public static GeneratedQuestion fromJson(JsonObject json) {
+        try {
+            String questionText = "";
+            String[] options = new String[4];
+            if (json.has("question")) {
+                questionText = json.get("question").getAsString();
+            }
+            if (json.has("options")) {
+                JsonArray array = json.getAsJsonArray("options");
+                int count = Math.min(4, array.size());
+                for (int i = 0; i < count; i++) {
+                    options[i] = array.get(i).getAsString();
+                }
+            }
+            GeneratedQuestion question = new GeneratedQuestion(questionText, options);
+            if (!question.isComplete()) {
+                return null;
+            }
+            if (json.has("answer_index") && json.get("answer_index").isJsonPrimitive()) {
+                try {
+                    int answerIndex = json.get("answer_index").getAsInt();
+                    question.answerIndex = answerIndex >= 0 && answerIndex < 4 ? answerIndex : -1;
+                } catch (NumberFormatException ignored) {
+                    // Keep the question; it will be graded by Groq instead
+                }
+            }
+            if (json.has("explanation") && json.get("explanation").isJsonPrimitive()) {
+                question.explanation = json.get("explanation").getAsString();
+            }
+            return question;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // Fallback: handle a variety of plain-text formats if JSON parsing fails.
+    // One pass over the text: lines are trimmed and classified by index, without splitting or regexes.
+    public static GeneratedQuestion parsePlainText(String text) {
+        StringBuilder questionBuilder = new StringBuilder();
+        List<String> optionList = new ArrayList<>();
+
+        int length = text.length();
+        int lineStart = 0;
+        while (lineStart <= length) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = length;
+            }
+            int start = lineStart;
+            int end = lineEnd;
+            lineStart = lineEnd + 1;
+            while (start < end && text.charAt(start) <= ' ') start++;
+            while (end > start && text.charAt(end - 1) <= ' ') end--;
+            if (start == end) continue;
+
+            // A) / A. style options, numbered 1) / 1. lists and "- " bullets
+            int optionStart = optionStart(text, start, end);
+            if (optionStart >= 0) {
+                while (text.charAt(optionStart) <= ' ') optionStart++;
+                optionList.add(text.substring(optionStart, end));
+                continue;
+            }
+
+            // If we don't yet have a question, treat first non-empty line as question
+            if (questionBuilder.length() == 0) {
+                questionBuilder.append(text, start, end);
+            } else {
+                // If options already started, treat as another option; otherwise, extend question
+                if (optionList.isEmpty()) {
+                    questionBuilder.append(' ').append(text, start, end);
+                } else {
+                    optionList.add(text.substring(start, end));
+                }
+            }
+        }
+
+        String[] options = new String[4];
+        int count = Math.min(4, optionList.size());
+        for (int i = 0; i < count; i++) {
+            options[i] = optionList.get(i);
+        }
+        return new GeneratedQuestion(questionBuilder.toString(), options);
+    }
+
+    // For a trimmed line in [start, end): where the option text begins if the line is an option
+    // ("A) x", "B. x", "12) x", "3. x" or "- x"), otherwise -1. There is always text after the marker.
+    static int optionStart(String text, int start, int end) {
+        char first = text.charAt(start);
+        if (first >= 'A' && first <= 'D') {
+            return end - start > 2 && isOptionDelimiter(text.charAt(start + 1))
+                    && isSingleLine(text, start + 2, end) ? start + 2 : -1;
+        }
+        if (first >= '0' && first <= '9') {
+            int i = start + 1;
+            while (i < end && text.charAt(i) >= '0' && text.charAt(i) <= '9') {
+                i++;
+            }
+            return i < end - 1 && isOptionDelimiter(text.charAt(i))
+                    && isSingleLine(text, i + 1, end) ? i + 1 : -1;
+        }
+        if (first == '-' && end - start > 2 && text.charAt(start + 1) == ' ') {
+            return start + 2;
+        }
+        return -1;
+    }
+
+    private static boolean isOptionDelimiter(char c) {
+        return c == ')' || c == '.';
+    }
+
+    // Lettered and numbered options used to be matched with "\\s*.+" after the marker, and '.' stops at
+    // \r, \u0085, \u2028 and \u2029; keep treating lines that contain them as question text
+    private static boolean isSingleLine(String text, int from, int end) {
+        int i = from;
+        while (i < end && isRegexWhitespace(text.charAt(i))) {
+            i++;
+        }
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static JsonElement parseJson(String text) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        try {
+            JsonElement element = JsonParser.parseString(text);
+            return element.isJsonObject() || element.isJsonArray() ? element : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String extractJson(String text) {
+        int objectStart = text.indexOf('{');
+        int arrayStart = text.indexOf('[');
+        int start;
+        int end;
+        if (arrayStart >= 0 && (objectStart < 0 || arrayStart < objectStart)) {
+            start = arrayStart;
+            end = text.lastIndexOf(']');
+        } else {
+            start = objectStart;
+            end = text.lastIndexOf('}');
+        }
+        if (start < 0 || end <= start) {
+            return null;
+        }
+        return text.substring(start, end + 1);
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.studybuddy;
+
+import com.example.studybuddy.data.QuizHistory;
+import com.example.studybuddy.data.QuizHistoryDao;
+import com.google.gson.Gson;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Write-behind buffer for answered questions. Rows are appended (and synced) to a JSONL journal on
+// the caller's thread before enqueue() returns, so they survive process death, and are inserted into
+// Room on the database lane in batches (one transaction each) when the buffer fills, after a short
+// delay, or when the caller flushes. A failed insert is retried with exponential backoff.
+public class QuizResultWriter {
+    private static final String TAG = "QuizResultWriter";
+
+    static final int FLUSH_THRESHOLD = 10;
+    static final long FLUSH_DELAY_MS = 5000;
+    static final long MAX_RETRY_DELAY_MS = 5 * 60 * 1000;
+
+    private final QuizHistoryDao dao;
+    private final TaskScheduler scheduler;
+    private final File journal;
+    private final Gson gson = new Gson();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "StudyBuddy-flush-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final List<QuizHistory> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+    private int failedFlushes;
+
+    public QuizResultWriter(QuizHistoryDao dao, TaskScheduler scheduler, File journal) {
+        this.dao = dao;
+        this.scheduler = scheduler;
+        this.journal = journal;
+    }
+
+    // Re-queues rows left in the journal by a previous process; rows that reached the database
+    // before it died are skipped
+    public void recover() {
+        scheduler.submit(TaskScheduler.Lane.DATABASE, () -> {
+            List<QuizHistory> journaled = readJournal();
+            if (journaled.isEmpty()) {
+                return;
+            }
+            List<QuizHistory> missing = new ArrayList<>();
+            for (QuizHistory row : journaled) {
+                if (dao.countMatching(row.sessionId, row.timestamp, row.question) == 0) {
+                    missing.add(row);
+                }
+            }
+            android.util.Log.d(TAG, "Recovered " + missing.size() + " of " + journaled.size() + " journaled results");
+            synchronized (this) {
+                pending.addAll(0, missing);
+            }
+            flushNow();
+        });
+    }
+
+    // The row is journaled and buffered before this returns, so a flush queued afterwards (e.g. by
+    // the weak-topic lookup) always includes it; only the batch insert waits for the database lane
+    public void enqueue(QuizHistory row) {
+        boolean full;
+        synchronized (this) {
+            appendToJournal(row);
+            pending.add(row);
+            // While backing off, the retry timer decides when to try again
+            full = pending.size() >= FLUSH_THRESHOLD && failedFlushes == 0;
+            if (!full && scheduledFlush == null) {
+                scheduledFlush = timer.schedule(this::flush, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full) {
+            scheduler.submit(TaskScheduler.Lane.DATABASE, TaskScheduler.Priority.HIGH, this::flushNow);
+        }
+    }
+
+    // Queues a flush behind any database work already submitted
+    public void flush() {
+        scheduler.submit(TaskScheduler.Lane.DATABASE, this::flushNow);
+    }
+
+    // Inserts everything buffered in one transaction; must run on the database lane
+    public void flushNow() {
+        List<QuizHistory> batch;
+        synchronized (this) {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(pending);
+            pending.clear();
+        }
+        try {
+            dao.insertAll(batch);
+            android.util.Log.d(TAG, "Flushed " + batch.size() + " quiz results");
+        } catch (Exception e) {
+            synchronized (this) {
+                pending.addAll(0, batch);
+                failedFlushes++;
+                long delay = Math.min(MAX_RETRY_DELAY_MS, FLUSH_DELAY_MS << Math.min(failedFlushes - 1, 16));
+                android.util.Log.e(TAG, "Error flushing quiz results, retrying in " + delay + "ms", e);
+                if (!timer.isShutdown()) {
+                    scheduledFlush = timer.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+                }
+            }
+            return;
+        }
+        synchronized (this) {
+            failedFlushes = 0;
+            // Whatever arrived during the insert stays journaled
+            rewriteJournal(pending);
+        }
+    }
+
+    // Flushes what is left and stops the timer; the scheduler must still accept database tasks
+    public void close() {
+        flush();
+        timer.shutdown();
+    }
+
+    // Synced before returning, so an enqueued row is on disk before it counts as pending
+    private void appendToJournal(QuizHistory row) {
+        try (FileOutputStream out = new FileOutputStream(journal, true);
+             Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            writer.write(gson.toJson(row));
+            writer.write('\n');
+            writer.flush();
+            out.getFD().sync();
+        } catch (IOException e) {
+            android.util.Log.e(TAG, "Error writing journal", e);
+        }
+    }
+
+    private void rewriteJournal(List<QuizHistory> rows) {
+        if (rows.isEmpty()) {
+            if (journal.exists() && !journal.delete()) {
+                android.util.Log.w(TAG, "Could not delete journal");
+            }
+            return;
+        }
+        File temp = new File(journal.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp);
+             Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            for (QuizHistory row : rows) {
+                writer.write(gson.toJson(row));
+                writer.write('\n');
+            }
+            writer.flush();
+            out.getFD().sync();
+        } catch (IOException e) {
+            android.util.Log.e(TAG, "Error rewriting journal", e);
+            return;
+        }
+        if (!temp.renameTo(journal)) {
+            android.util.Log.w(TAG, "Could not replace journal");
+        }
+    }
+
+    private synchronized List<QuizHistory> readJournal() {
+        List<QuizHistory> rows = new ArrayList<>();
+        if (!journal.exists()) {
+            return rows;
+        }
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(journal), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                try {
+                    QuizHistory row = gson.fromJson(line, QuizHistory.class);
+                    if (row != null) {
+                        // Let Room assign a fresh id
+                        row.id = 0;
+                        rows.add(row);
+                    }
+                } catch (Exception e) {
+                    // A torn last line from a crash mid-write; everything before it is intact
+                    android.util.Log.w(TAG, "Skipping unreadable journal line");
+                }
+            }
+        } catch (IOException e) {
+            android.util.Log.e(TAG, "Error reading journal", e);
+        }
+        return rows;
+    }
+}
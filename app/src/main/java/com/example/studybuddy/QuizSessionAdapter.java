@@ -5,17 +5,17 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.studybuddy.data.SessionSummary;
 import com.google.android.material.card.MaterialCardView;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.List;
 import java.util.Locale;
 
-public class QuizSessionAdapter extends RecyclerView.Adapter<QuizSessionAdapter.ViewHolder> {
-    private List<HistoryActivity.QuizSession> sessions;
+public class QuizSessionAdapter extends PagingDataAdapter<SessionSummary, QuizSessionAdapter.ViewHolder> {
     private OnSessionClickListener listener;
     private SimpleDateFormat dateFormat;
     
@@ -24,17 +24,12 @@ public class QuizSessionAdapter extends RecyclerView.Adapter<QuizSessionAdapter.
         void onSessionDeleteClick(String sessionId);
     }
     
-    public QuizSessionAdapter(List<HistoryActivity.QuizSession> sessions, OnSessionClickListener listener) {
-        this.sessions = sessions != null ? sessions : new ArrayList<>();
+    public QuizSessionAdapter(OnSessionClickListener listener) {
+        super(DIFF_CALLBACK);
         this.listener = listener;
         this.dateFormat = new SimpleDateFormat("MMM dd, yyyy HH:mm", Locale.getDefault());
     }
     
-    public void updateSessions(List<HistoryActivity.QuizSession> newSessions) {
-        this.sessions = newSessions != null ? newSessions : new ArrayList<>();
-        notifyDataSetChanged();
-    }
-    
     @NonNull
     @Override
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -45,7 +40,10 @@ public class QuizSessionAdapter extends RecyclerView.Adapter<QuizSessionAdapter.
     
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        HistoryActivity.QuizSession session = sessions.get(position);
+        SessionSummary session = getItem(position);
+        if (session == null) {
+            return;
+        }
         
         holder.categoryText.setText(session.category != null ? session.category : "General");
         holder.scoreText.setText(session.correctCount + "/" + session.totalQuestions);
@@ -77,10 +75,20 @@ public class QuizSessionAdapter extends RecyclerView.Adapter<QuizSessionAdapter.
         }
     }
     
-    @Override
-    public int getItemCount() {
-        return sessions.size();
-    }
+    private static final DiffUtil.ItemCallback<SessionSummary> DIFF_CALLBACK = new DiffUtil.ItemCallback<SessionSummary>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull SessionSummary oldItem, @NonNull SessionSummary newItem) {
+            return oldItem.sessionId != null && oldItem.sessionId.equals(newItem.sessionId);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull SessionSummary oldItem, @NonNull SessionSummary newItem) {
+            return oldItem.timestamp == newItem.timestamp
+                    && oldItem.totalQuestions == newItem.totalQuestions
+                    && oldItem.correctCount == newItem.correctCount
+                    && java.util.Objects.equals(oldItem.category, newItem.category);
+        }
+    };
     
     static class ViewHolder extends RecyclerView.ViewHolder {
         TextView categoryText;
@@ -3,15 +3,18 @@ package com.example.studybuddy;
 import android.os.Bundle;
 import android.view.MenuItem;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingLiveData;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.studybuddy.data.AppDatabase;
 import com.example.studybuddy.data.QuizHistory;
 import com.example.studybuddy.data.QuizHistoryDao;
+import com.example.studybuddy.data.QuizHistoryPagingSource;
 import com.google.android.material.appbar.MaterialToolbar;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.ExecutorService;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 import java.util.concurrent.Executors;
 
 public class QuizSessionDetailActivity extends AppCompatActivity {
@@ -19,7 +22,7 @@ public class QuizSessionDetailActivity extends AppCompatActivity {
     private HistoryAdapter adapter;
     private AppDatabase database;
     private QuizHistoryDao dao;
-    private ExecutorService executorService;
+    private ListeningExecutorService executorService;
     private String sessionId;
     
     @Override
@@ -35,7 +38,7 @@ public class QuizSessionDetailActivity extends AppCompatActivity {
         
         database = AppDatabase.getDatabase(this);
         dao = database.quizHistoryDao();
-        executorService = Executors.newSingleThreadExecutor();
+        executorService = MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
         
         MaterialToolbar toolbar = findViewById(com.example.studybuddy.R.id.toolbar);
         setSupportActionBar(toolbar);
@@ -46,14 +49,11 @@ public class QuizSessionDetailActivity extends AppCompatActivity {
         
         recyclerView = findViewById(com.example.studybuddy.R.id.recyclerViewQuestions);
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
-        adapter = new HistoryAdapter(new ArrayList<>(), id -> {
+        adapter = new HistoryAdapter(id -> {
             executorService.execute(() -> {
                 try {
                     dao.deleteById(id);
-                    List<QuizHistory> questions = dao.getQuestionsBySession(sessionId);
-                    runOnUiThread(() -> {
-                        adapter.updateHistory(questions != null ? questions : new ArrayList<>());
-                    });
+                    runOnUiThread(() -> adapter.refresh());
                 } catch (Exception e) {
                     e.printStackTrace();
                 }
@@ -65,16 +65,11 @@ public class QuizSessionDetailActivity extends AppCompatActivity {
     }
     
     private void loadSessionQuestions() {
-        executorService.execute(() -> {
-            try {
-                List<QuizHistory> questions = dao.getQuestionsBySession(sessionId);
-                runOnUiThread(() -> {
-                    adapter.updateHistory(questions != null ? questions : new ArrayList<>());
-                });
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        });
+        Pager<QuizHistory, QuizHistory> pager = new Pager<>(
+                new PagingConfig(HistoryActivity.PAGE_SIZE, HistoryActivity.PAGE_SIZE / 2, false),
+                () -> new QuizHistoryPagingSource(dao, sessionId, executorService));
+        PagingLiveData.cachedIn(PagingLiveData.getLiveData(pager), getLifecycle())
+                .observe(this, questions -> adapter.submitData(getLifecycle(), questions));
     }
     
     @Override
@@ -1,34 +1,229 @@
 package com.example.studybuddy;
 
 import com.example.studybuddy.api.ChatMessage;
+import com.example.studybuddy.api.QuizResult;
 import com.example.studybuddy.data.QuizHistory;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
 
 public class ReviewSession {
+    // Questions requested per Groq call; a 20-question quiz takes 4 generation calls
+    public static final int QUESTION_BATCH_SIZE = 5;
+    // Refill the buffer in the background once it drops below this many questions
+    public static final int PREFETCH_DEPTH = 2;
+    public static final int MAX_BUFFERED_QUESTIONS = 10;
+    // Finished topic summaries kept for repeat quizzes within the session
+    static final int TOPIC_SUMMARY_CACHE_SIZE = 8;
+
     public SessionState state = SessionState.GREETING;
     public String subject;
     public int questionCount = 0;
     public int currentQuestionIndex = 0;
     public String currentQuestion;
     public List<ChatMessage> conversationHistory = new ArrayList<>();
+    // One line per turn compacted out of conversationHistory; see PromptBudget.compact()
+    public String historySynopsis;
     public List<String> weakTopics;
     public List<QuizHistory> weakQuestions;
+    // History item the current weak-topic question was generated from; rescheduled once answered
+    public QuizHistory currentReviewItem;
     public String sessionId;
     public String[] currentOptions;
+    // Answer key for the current question, used to grade option answers without a Groq call
+    public int currentAnswerIndex = -1;
+    public String currentExplanation;
     public List<String> askedQuestions = new ArrayList<>();
-    
+
+    // Question buffer, filled by batch generation (foreground or prefetch thread) and drained by generateQuestion()
+    private final Deque<GeneratedQuestion> prefetchedQuestions = new ArrayDeque<>();
+    private final List<Future<?>> prefetchTasks = new ArrayList<>();
+    private int prefetchGeneration = 0;
+
+    // Outcome of picking each option of pregradedQuestion, filled while the question is on screen
+    private String pregradedQuestion;
+    private QuizResult[] pregradedResults;
+    private Future<?> pregradeTask;
+
+    // End-of-quiz summary being generated for topicSummaryKey
+    private String topicSummaryKey;
+    private CompletableFuture<String> topicSummary;
+    // By lower-cased subject, least recently used dropped first
+    private final Map<String, String> topicSummaries =
+            new LinkedHashMap<String, String>(TOPIC_SUMMARY_CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > TOPIC_SUMMARY_CACHE_SIZE;
+                }
+            };
+
+    public synchronized int getPrefetchGeneration() {
+        return prefetchGeneration;
+    }
+
+    public synchronized int bufferedQuestionCount() {
+        return prefetchedQuestions.size();
+    }
+
+    public synchronized boolean hasPrefetchInFlight() {
+        prefetchTasks.removeIf(Future::isDone);
+        return !prefetchTasks.isEmpty();
+    }
+
+    public synchronized void trackPrefetch(Future<?> task) {
+        prefetchTasks.add(task);
+    }
+
+    // Returns how many questions were buffered; stale results (session was reset) and duplicates are dropped
+    public synchronized int offerPrefetched(List<GeneratedQuestion> questions, int generation) {
+        if (generation != prefetchGeneration) {
+            return 0;
+        }
+        int added = 0;
+        for (GeneratedQuestion question : questions) {
+            if (prefetchedQuestions.size() >= MAX_BUFFERED_QUESTIONS) {
+                break;
+            }
+            if (!isBuffered(question.question)) {
+                prefetchedQuestions.addLast(question);
+                added++;
+            }
+        }
+        return added;
+    }
+
+    // Must be called from the thread that owns askedQuestions
+    public synchronized GeneratedQuestion pollPrefetched() {
+        GeneratedQuestion next;
+        while ((next = prefetchedQuestions.pollFirst()) != null) {
+            if (!wasAsked(next.question)) {
+                return next;
+            }
+        }
+        return null;
+    }
+
+    public synchronized List<String> prefetchedQuestionTexts() {
+        List<String> texts = new ArrayList<>(prefetchedQuestions.size());
+        for (GeneratedQuestion queued : prefetchedQuestions) {
+            texts.add(queued.question);
+        }
+        return texts;
+    }
+
+    // A new quiz or subject: queued prefetch and pregrade tasks are cancelled rather than left to
+    // run and be discarded by the generation check
+    public void cancelBackgroundWork() {
+        cancelPrefetch();
+        clearPregraded();
+    }
+
+    public synchronized void cancelPrefetch() {
+        prefetchGeneration++;
+        for (Future<?> task : prefetchTasks) {
+            task.cancel(true);
+        }
+        prefetchTasks.clear();
+        prefetchedQuestions.clear();
+    }
+
+    public synchronized void offerPregraded(String question, QuizResult[] results) {
+        pregradedQuestion = question;
+        pregradedResults = results;
+    }
+
+    // Null unless the cached outcomes belong to this question
+    public synchronized QuizResult[] pregradedFor(String question) {
+        return question != null && question.equals(pregradedQuestion) ? pregradedResults : null;
+    }
+
+    public synchronized boolean isPregrading(String question) {
+        return pregradedFor(question) != null || (pregradeTask != null && !pregradeTask.isDone());
+    }
+
+    public synchronized void trackPregrade(Future<?> task) {
+        if (pregradeTask != null) {
+            pregradeTask.cancel(true);
+        }
+        pregradeTask = task;
+    }
+
+    public synchronized void clearPregraded() {
+        if (pregradeTask != null) {
+            pregradeTask.cancel(true);
+            pregradeTask = null;
+        }
+        pregradedQuestion = null;
+        pregradedResults = null;
+    }
+
+    // Pending or successful summary for key; a failed one is not reused
+    public synchronized CompletableFuture<String> topicSummaryFor(String key) {
+        if (!key.equals(topicSummaryKey) || (topicSummary.isDone() && topicSummary.getNow(null) == null)) {
+            return null;
+        }
+        return topicSummary;
+    }
+
+    public synchronized void trackTopicSummary(String key, CompletableFuture<String> summary) {
+        topicSummaryKey = key;
+        topicSummary = summary;
+    }
+
+    public synchronized String cachedTopicSummary(String key) {
+        return topicSummaries.get(key);
+    }
+
+    // Ignored if the session was reset (or moved on to another summary) while this one was generating
+    public synchronized void cacheTopicSummary(String key, CompletableFuture<String> source, String summary) {
+        if (source == topicSummary) {
+            topicSummaries.put(key, summary);
+        }
+    }
+
+    private boolean isBuffered(String question) {
+        for (GeneratedQuestion queued : prefetchedQuestions) {
+            if (queued.question.equalsIgnoreCase(question)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean wasAsked(String question) {
+        for (String asked : askedQuestions) {
+            if (asked != null && asked.equalsIgnoreCase(question)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public void reset() {
+        cancelBackgroundWork();
+        synchronized (this) {
+            trackTopicSummary(null, null);
+            topicSummaries.clear();
+        }
         state = SessionState.GREETING;
         subject = null;
         questionCount = 0;
         currentQuestionIndex = 0;
         currentQuestion = null;
         conversationHistory.clear();
+        historySynopsis = null;
         weakTopics = null;
         weakQuestions = null;
+        currentReviewItem = null;
         sessionId = null;
         currentOptions = null;
+        currentAnswerIndex = -1;
+        currentExplanation = null;
         askedQuestions.clear();
     }
 }
@@ -41,4 +236,3 @@ enum SessionState {
     WAITING_FOR_ANSWER,
 
 }
-
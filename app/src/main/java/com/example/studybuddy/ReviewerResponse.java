@@ -1,11 +1,14 @@
 package com.example.studybuddy;
 
 import com.example.studybuddy.api.QuizResult;
+import com.example.studybuddy.data.QuizHistory;
 
 public class ReviewerResponse {
     public String text;
     public QuizResult quizResult;
     public boolean shouldRequestWeakTopics;
+    // Set when the answer was a review of an earlier history item
+    public QuizHistory reviewedItem;
     
     public ReviewerResponse(String text, QuizResult quizResult, boolean shouldRequestWeakTopics) {
         this.text = text;
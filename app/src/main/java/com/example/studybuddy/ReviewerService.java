@@ -1,19 +1,27 @@
 package com.example.studybuddy;
 
 import com.example.studybuddy.api.*;
+import com.example.studybuddy.api.GroqMetrics.CallType;
 import com.example.studybuddy.data.QuizHistory;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import okhttp3.ResponseBody;
 
 public class ReviewerService {
     // ... (rest of the code remains the same)
     private GroqApiService groqApiService;
-    
+    private final QuestionBank questionBank;
+    private final GroqCallExecutor calls;
+    private final GroqMetrics metrics = GroqApiService.Factory.metrics();
+
     private static final String SYSTEM_PROMPT = 
         "You are StudyBuddy, an AI reviewer system designed to help students study. Your role is to:\n\n" +
         "1. When the user opens the reviewer, greet them warmly and wait for commands.\n" +
@@ -38,9 +46,34 @@ public class ReviewerService {
         "   - Never give answers early\n" +
         "   - Always follow the exact JSON format\n" +
         "   - Keep explanations concise (1-2 sentences)";
+
+    // Free chat sends the system prompt, the history synopsis, recent turns and the new message.
+    // The history is compacted to what is left once a typical user message is reserved for, so
+    // prompt size stays flat however long the session runs.
+    static final int USER_MESSAGE_RESERVE = 256;
+    private static final String SYNOPSIS_HEADER = "Earlier in this session:\n";
+    private static final int HISTORY_BUDGET = PromptBudget.promptBudget(CallType.FREE_CHAT)
+            - PromptBudget.estimateTokens(new ChatMessage("system", SYSTEM_PROMPT))
+            - PromptBudget.estimateTokens(SYNOPSIS_HEADER) - PromptBudget.SYNOPSIS_BUDGET
+            - USER_MESSAGE_RESERVE - 2 * PromptBudget.MESSAGE_OVERHEAD_TOKENS;
     
+    // Receives the text of the reply being built while a streamed completion is in progress
+    public interface StreamListener {
+        void onPartialText(String text);
+    }
+
     public ReviewerService(GroqApiService groqApiService) {
+        this(groqApiService, null);
+    }
+
+    public ReviewerService(GroqApiService groqApiService, QuestionBank questionBank) {
+        this(groqApiService, questionBank, GroqApiService.Factory.callExecutor());
+    }
+
+    public ReviewerService(GroqApiService groqApiService, QuestionBank questionBank, GroqCallExecutor calls) {
         this.groqApiService = groqApiService;
+        this.questionBank = questionBank;
+        this.calls = calls;
     }
 
     public String getGreeting() throws IOException {
@@ -50,53 +83,37 @@ public class ReviewerService {
     }
     
     public ReviewerResponse processUserMessage(String userMessage, ReviewSession session) throws IOException {
+        return processUserMessage(userMessage, session, null);
+    }
+
+    public ReviewerResponse processUserMessage(String userMessage, ReviewSession session,
+                                               StreamListener listener) throws IOException {
+        // Commands are recognised with precompiled phrase tables; see CommandMatcher
+        CommandMatcher.Intent intent = CommandMatcher.match(userMessage);
+
         // Simple greetings: repeat the introduction instead of starting a quiz
-        String trimmedLower = userMessage.toLowerCase().trim();
-        if (session.state == SessionState.WAITING_FOR_COMMAND &&
-                ("hi".equals(trimmedLower) || "hello".equals(trimmedLower) || "hey".equals(trimmedLower))) {
+        if (session.state == SessionState.WAITING_FOR_COMMAND && intent == CommandMatcher.Intent.GREETING) {
             String greeting = getGreeting();
             return new ReviewerResponse(greeting, null, false);
         }
 
         // Check for weak topic requests
-        String lowerMessage = userMessage.toLowerCase();
-        if (lowerMessage.contains("ap reviewer") || 
-            lowerMessage.contains("review my weak topics") ||
-            lowerMessage.contains("review my mistakes") ||
-            lowerMessage.contains("focus on weak areas") ||
-            lowerMessage.contains("weak topics")) {
+        if (intent == CommandMatcher.Intent.WEAK_TOPICS) {
             return new ReviewerResponse("REQUEST_WEAK_TOPICS", null, true);
         }
         
-        // Build conversation history
-        List<ChatMessage> messages = new ArrayList<>();
-        messages.add(new ChatMessage("system", SYSTEM_PROMPT));
-        messages.addAll(session.conversationHistory);
-        messages.add(new ChatMessage("user", userMessage));
-        
         // Handle quiz me command - optimized for faster response
         if (session.state == SessionState.WAITING_FOR_COMMAND) {
-            Pattern quizPattern = Pattern.compile("quiz me about (.+)", Pattern.CASE_INSENSITIVE);
-            java.util.regex.Matcher matcher = quizPattern.matcher(userMessage);
-            if (matcher.find()) {
-                session.subject = matcher.group(1).trim();
+            String subject = intent == CommandMatcher.Intent.QUIZ_ABOUT
+                    ? CommandMatcher.quizSubject(userMessage) : userMessage.trim();
+            if (intent == CommandMatcher.Intent.QUIZ_ABOUT || !subject.isEmpty()) {
+                session.cancelBackgroundWork();
+                session.subject = subject;
                 session.state = SessionState.ASKING_QUESTION_COUNT;
-
                 return new ReviewerResponse(
                     "Great! How many questions would you like about " + session.subject + "?",
                     null, false
                 );
-            } else {
-
-                String trimmed = userMessage.trim();
-                if (!trimmed.isEmpty()) {
-                    session.subject = trimmed;
-                    session.state = SessionState.ASKING_QUESTION_COUNT;
-                    return new ReviewerResponse(
-                        "Great! How many questions would you like about " + session.subject + "?",
-                        null, false
-                    );
-                }
             }
         }
         
@@ -108,7 +125,7 @@ public class ReviewerService {
                     session.questionCount = count;
                     session.currentQuestionIndex = 0;
                     session.state = SessionState.GENERATING_QUESTION;
-                    return generateQuestion(session);
+                    return generateQuestion(session, listener);
                 }
             } catch (NumberFormatException e) {
                 // Not a number
@@ -125,39 +142,170 @@ public class ReviewerService {
         }
 
         if (session.state == SessionState.GENERATING_QUESTION && userMessage.equals("generate_next_question")) {
-            return generateQuestion(session);
+            return generateQuestion(session, listener);
         }
         
 
-        GroqChatRequest request = new GroqChatRequest(messages);
+        GroqChatRequest request = new GroqChatRequest(chatPrompt(session, userMessage));
         request.maxTokens = 512;
         
-        retrofit2.Response<GroqChatResponse> response = groqApiService.chatCompletion(request).execute();
-        
         String aiResponse = "I'm here to help! Try saying 'Quiz me about [subject]' to start.";
-        if (response.isSuccessful() && response.body() != null && 
-            response.body().choices != null && !response.body().choices.isEmpty()) {
-            aiResponse = response.body().choices.get(0).message.content;
+        if (listener != null) {
+            StringBuilder streamed = new StringBuilder();
+            String text = streamCompletion(CallType.FREE_CHAT, request, delta -> {
+                streamed.append(delta);
+                listener.onPartialText(streamed.toString());
+            });
+            if (text != null && !text.isEmpty()) {
+                aiResponse = text;
+            }
+        } else {
+            retrofit2.Response<GroqChatResponse> response = complete(CallType.FREE_CHAT, request);
+            if (response.isSuccessful() && response.body() != null && 
+                response.body().choices != null && !response.body().choices.isEmpty()) {
+                aiResponse = response.body().choices.get(0).message.content;
+            }
         }
         
-        session.conversationHistory.add(new ChatMessage("user", userMessage));
-        session.conversationHistory.add(new ChatMessage("assistant", aiResponse));
+        appendHistory(session, new ChatMessage("user", userMessage));
+        appendHistory(session, new ChatMessage("assistant", aiResponse));
         
         return new ReviewerResponse(aiResponse, null, false);
     }
     
-    private ReviewerResponse generateQuestion(ReviewSession session) throws IOException {
+    private ReviewerResponse generateQuestion(ReviewSession session, StreamListener listener) throws IOException {
         // Generate a new session ID for the first question of each quiz
         if (session.currentQuestionIndex == 0 || session.sessionId == null || session.sessionId.isEmpty()) {
             session.sessionId = "session_" + System.currentTimeMillis();
         }
+
+        // Serve from the per-session question buffer first; only block on Groq when it is empty
+        GeneratedQuestion generated = session.pollPrefetched();
+        if (generated == null) {
+            boolean weakPractice = session.weakTopics != null && session.weakQuestions != null;
+            int remaining = Math.max(1, session.questionCount - session.currentQuestionIndex);
+            int batchSize = Math.min(ReviewSession.QUESTION_BATCH_SIZE, remaining);
+            int generation = session.getPrefetchGeneration();
+
+            // Cached questions for this subject first; Groq only on a miss
+            List<GeneratedQuestion> batch = weakPractice ? new ArrayList<>()
+                    : takeFromBank(session.subject, session.askedQuestions, batchSize);
+            boolean fromGroq = false;
+            if (batch.isEmpty()) {
+                batch = requestQuestions(session.subject, session.currentQuestionIndex,
+                        batchSize, session.questionCount, weakPractice, session.askedQuestions, listener);
+                fromGroq = !weakPractice;
+            }
+            // Groq failed or the circuit is open: expired bank questions are better than ending the quiz
+            if (batch.isEmpty() && !weakPractice && questionBank != null) {
+                batch = new ArrayList<>(questionBank.takeStale(session.subject, session.askedQuestions, batchSize));
+            }
+            if (!batch.isEmpty()) {
+                generated = batch.get(0);
+                session.offerPrefetched(batch.subList(1, batch.size()), generation);
+            }
+            // Queued on the database lane; the question doesn't wait for the insert
+            if (fromGroq) {
+                storeInBank(session.subject, batch);
+            }
+        }
+
+        // Fallback if Groq response is unusable
+        if (generated == null) {
+            session.state = SessionState.WAITING_FOR_COMMAND;
+            return new ReviewerResponse(
+                "I couldn't understand the quiz generated for this topic. Please try again or rephrase the subject.",
+                null,
+                false
+            );
+        }
+
+        String questionText = generated.question;
+        String[] options = generated.options;
+
+        session.currentQuestion = questionText;
+        session.currentOptions = options;
+        session.currentAnswerIndex = generated.hasAnswerKey() ? generated.answerIndex : -1;
+        session.currentExplanation = generated.explanation;
+        session.state = SessionState.WAITING_FOR_ANSWER;
+
+        if (session.askedQuestions != null) {
+            session.askedQuestions.add(questionText);
+        }
         
+        // Format question with options for display
+        StringBuilder displayQuestion = new StringBuilder(questionText + "\n\n");
+        for (int i = 0; i < options.length; i++) {
+            displayQuestion.append((char)('A' + i)).append(") ").append(options[i]).append("\n");
+        }
+        
+        appendHistory(session, new ChatMessage("assistant", displayQuestion.toString()));
+        
+        return new ReviewerResponse(displayQuestion.toString(), null, false);
+    }
+
+    // Refills the question buffer in the background while the user answers the current question.
+    // Results are discarded if the session is reset before the batch arrives.
+    public void prefetchQuestions(ReviewSession session, TaskScheduler scheduler) {
+        if (session.state != SessionState.WAITING_FOR_ANSWER || session.weakTopics != null) {
+            return;
+        }
+        if (session.hasPrefetchInFlight() || session.bufferedQuestionCount() >= ReviewSession.PREFETCH_DEPTH) {
+            return;
+        }
+
+        int buffered = session.bufferedQuestionCount();
+        int remaining = session.questionCount - session.currentQuestionIndex - 1 - buffered;
+        int batchSize = Math.min(ReviewSession.QUESTION_BATCH_SIZE, remaining);
+        if (batchSize <= 0) {
+            return;
+        }
+
+        final String subject = session.subject;
+        final int questionCount = session.questionCount;
+        final int startIndex = session.currentQuestionIndex + 1 + buffered;
+        final int generation = session.getPrefetchGeneration();
+        final List<String> exclude = new ArrayList<>(session.askedQuestions);
+        exclude.addAll(session.prefetchedQuestionTexts());
+
+        Future<?> task = scheduler.submit(TaskScheduler.Lane.PREFETCH, TaskScheduler.Priority.LOW, () -> {
+            try {
+                List<GeneratedQuestion> batch = takeFromBank(subject, exclude, batchSize);
+                boolean fromBank = !batch.isEmpty();
+                if (!fromBank) {
+                    batch = requestQuestions(subject, startIndex, batchSize, questionCount, false, exclude, null);
+                    storeInBank(subject, batch);
+                }
+                if (!Thread.currentThread().isInterrupted()) {
+                    session.offerPrefetched(batch, generation);
+                }
+
+                // Keep the bank topped up for the next quiz on this subject
+                if (fromBank && questionBank != null && questionBank.needsRefill(subject)
+                        && !Thread.currentThread().isInterrupted()) {
+                    exclude.addAll(session.prefetchedQuestionTexts());
+                    storeInBank(subject, requestQuestions(subject, startIndex, ReviewSession.QUESTION_BATCH_SIZE,
+                            questionCount, false, exclude, null));
+                }
+            } catch (Exception e) {
+                android.util.Log.w("ReviewerService", "Prefetching questions failed", e);
+            }
+        });
+        session.trackPrefetch(task);
+    }
+
+    // Asks Groq for a batch of questions in a single call. Does not touch session state so it
+    // can run off the main executor; returns an empty list if nothing usable came back.
+    // With a listener the call is streamed and the first question's text is reported as it arrives.
+    private List<GeneratedQuestion> requestQuestions(String subject, int startIndex, int count, int questionCount,
+                                                     boolean weakPractice, List<String> exclude,
+                                                     StreamListener listener) {
         String context;
-        if (session.weakTopics != null && session.weakQuestions != null) {
-            context = "Create ONE multiple-choice question to help the student practice weak topics about " + session.subject + ".";
+        if (weakPractice) {
+            context = "Create " + count + " multiple-choice questions to help the student practice weak topics about " + subject + ".";
         } else {
-            context = "Create ONE multiple-choice question about " + session.subject +
-                     " (Question " + (session.currentQuestionIndex + 1) + "/" + session.questionCount + ").";
+            context = "Create " + count + " multiple-choice questions about " + subject +
+                     " (Questions " + (startIndex + 1) + "-" + (startIndex + count) + " of " + questionCount + ").";
         }
         
         // Use minimal conversation history for faster response
@@ -167,17 +315,25 @@ public class ReviewerService {
                 "You are a question generator for a quiz app. " +
                 "Respond ONLY with valid JSON, no extra text, in this exact format:\n" +
                 "{\n" +
-                "  \"question\": \"...\",\n" +
-                "  \"options\": [\"...\", \"...\", \"...\", \"...\"]\n" +
+                "  \"questions\": [\n" +
+                "    {\"question\": \"...\", \"options\": [\"...\", \"...\", \"...\", \"...\"], " +
+                "\"answer_index\": 0, \"explanation\": \"...\"}\n" +
+                "  ]\n" +
                 "}\n" +
-                "The options array must contain exactly 4 short answer choices. Do not label them A/B/C/D; just provide the text."
+                "Each options array must contain exactly 4 short answer choices. Do not label them A/B/C/D; just provide the text. " +
+                "answer_index is the 0-based index of the correct option and explanation says why in 1 sentence. " +
+                "Every question must be different."
         ));
 
-        // Build user prompt, including previously asked questions so they are not repeated
+        // Build user prompt, including previously asked questions so they are not repeated. Only the
+        // newest ones that fit the budget are sent; withoutExcluded() still filters against all of them.
+        CallType callType = weakPractice ? CallType.WEAK_TOPIC : CallType.GENERATE;
         StringBuilder userPromptBuilder = new StringBuilder(context);
-        if (session.askedQuestions != null && !session.askedQuestions.isEmpty()) {
+        if (exclude != null && !exclude.isEmpty()) {
+            int excludeBudget = PromptBudget.promptBudget(callType) - PromptBudget.estimateTokens(messages)
+                    - PromptBudget.estimateTokens(context) - 2 * PromptBudget.MESSAGE_OVERHEAD_TOKENS;
             userPromptBuilder.append("\n\nPreviously asked questions, do NOT repeat any of them:\n");
-            for (String asked : session.askedQuestions) {
+            for (String asked : PromptBudget.newestWithin(exclude, excludeBudget)) {
                 if (asked != null && !asked.isEmpty()) {
                     userPromptBuilder.append("- ").append(asked).append("\n");
                 }
@@ -186,13 +342,37 @@ public class ReviewerService {
         messages.add(new ChatMessage("user", userPromptBuilder.toString()));
         
         GroqChatRequest request = new GroqChatRequest(messages);
-        request.maxTokens = 300;
-        
-        String questionText = "";
-        String[] options = new String[4];
+        request.maxTokens = 300 * count;
         
+        List<GeneratedQuestion> questions = new ArrayList<>();
+        if (listener != null) {
+            StreamingQuestionParser partial = new StreamingQuestionParser();
+            try {
+                String fullResponse = streamCompletion(callType, request, delta -> {
+                    partial.append(delta);
+                    String questionSoFar = partial.firstQuestionText();
+                    if (questionSoFar != null && !questionSoFar.isEmpty()) {
+                        listener.onPartialText(questionSoFar);
+                    }
+                });
+                if (fullResponse != null) {
+                    questions = QuestionParser.parseBatch(fullResponse.trim());
+                    if (questions.isEmpty()) {
+                        metrics.recordParseFailure(callType);
+                    }
+                }
+            } catch (Exception e) {
+                android.util.Log.e("ReviewerService", "Error streaming questions from Groq API", e);
+            }
+            if (questions.isEmpty()) {
+                // Stream was cut off (e.g. by max_tokens); keep every question object that completed
+                questions = new ArrayList<>(partial.completedQuestions());
+            }
+            return withoutExcluded(questions, exclude);
+        }
+
         try {
-            retrofit2.Response<GroqChatResponse> response = groqApiService.chatCompletion(request).execute();
+            retrofit2.Response<GroqChatResponse> response = complete(callType, request);
 
             if (!response.isSuccessful()) {
                 String errorBody = null;
@@ -206,157 +386,156 @@ public class ReviewerService {
             } else if (response.body() != null &&
                     response.body().choices != null && !response.body().choices.isEmpty()) {
                 String fullResponse = response.body().choices.get(0).message.content.trim();
-                android.util.Log.d("ReviewerService", "Groq question raw response: " + fullResponse);
-
-                try {
-                    JsonObject json = JsonParser.parseString(fullResponse).getAsJsonObject();
-                    if (json.has("question")) {
-                        questionText = json.get("question").getAsString();
-                    }
-                    if (json.has("options")) {
-                        JsonArray array = json.getAsJsonArray("options");
-                        int count = Math.min(4, array.size());
-                        for (int i = 0; i < count; i++) {
-                            options[i] = array.get(i).getAsString();
-                        }
-                    }
-                } catch (Exception parseException) {
-                    // Fallback: handle a variety of plain-text formats if JSON parsing fails
-                    String[] lines = fullResponse.split("\n");
-                    StringBuilder questionBuilder = new StringBuilder();
-                    java.util.List<String> optionList = new java.util.ArrayList<>();
-
-                    for (String rawLine : lines) {
-                        String line = rawLine.trim();
-                        if (line.isEmpty()) continue;
-
-                        // A) / A. style options
-                        if (line.matches("^[A-D][\\).]\\s*.+")) {
-                            optionList.add(line.substring(2).trim());
-                            continue;
-                        }
-
-                        // Numbered list: 1) / 1.
-                        if (line.matches("^[0-9]+[\\).]\\s*.+")) {
-                            line = line.replaceFirst("^[0-9]+[\\).]\\s*", "").trim();
-                            optionList.add(line);
-                            continue;
-                        }
-
-                        // Bullet list: - option
-                        if (line.startsWith("- ")) {
-                            optionList.add(line.substring(2).trim());
-                            continue;
-                        }
-
-                        // If we don't yet have a question, treat first non-empty line as question
-                        if (questionBuilder.length() == 0) {
-                            questionBuilder.append(line);
-                        } else {
-                            // If options already started, treat as another option; otherwise, extend question
-                            if (optionList.isEmpty()) {
-                                questionBuilder.append(" ").append(line);
-                            } else {
-                                optionList.add(line);
-                            }
-                        }
-                    }
+                if (GroqDiagnostics.isDebug()) {
+                    android.util.Log.d("ReviewerService", "Groq question raw response: " + fullResponse);
+                }
 
-                    questionText = questionBuilder.toString();
-                    int count = Math.min(4, optionList.size());
-                    for (int i = 0; i < count; i++) {
-                        options[i] = optionList.get(i);
-                    }
+                questions = QuestionParser.parseBatch(fullResponse);
+                if (questions.isEmpty()) {
+                    metrics.recordParseFailure(callType);
+                    android.util.Log.w("ReviewerService", "Failed to parse question batch ("
+                            + fullResponse.length() + " chars)");
                 }
             }
         } catch (Exception e) {
-            android.util.Log.e("ReviewerService", "Error generating question from Groq API", e);
+            android.util.Log.e("ReviewerService", "Error generating questions from Groq API", e);
         }
-        
-        // Fallback if Groq response is unusable
-        if (questionText.isEmpty() || options[0] == null || options[1] == null 
-                || options[2] == null || options[3] == null) {
-            android.util.Log.w(
-                    "ReviewerService",
-                    "Failed to parse question/options. question='" + questionText + "', " +
-                            "options0=" + options[0] + ", options1=" + options[1] + 
-                            ", options2=" + options[2] + ", options3=" + options[3]
-            );
-            session.state = SessionState.WAITING_FOR_COMMAND;
-            return new ReviewerResponse(
-                "I couldn't understand the quiz generated for this topic. Please try again or rephrase the subject.",
-                null,
-                false
-            );
+
+        return withoutExcluded(questions, exclude);
+    }
+
+    private List<GeneratedQuestion> takeFromBank(String subject, List<String> exclude, int limit) {
+        if (questionBank == null) {
+            return new ArrayList<>();
         }
-        
-        session.currentQuestion = questionText;
-        session.currentOptions = options;
-        session.state = SessionState.WAITING_FOR_ANSWER;
+        return new ArrayList<>(questionBank.take(subject, exclude, limit));
+    }
 
-        if (session.askedQuestions != null) {
-            session.askedQuestions.add(questionText);
+    private void storeInBank(String subject, List<GeneratedQuestion> questions) {
+        if (questionBank != null && !questions.isEmpty()) {
+            questionBank.store(subject, questions);
         }
-        
-        // Format question with options for display
-        StringBuilder displayQuestion = new StringBuilder(questionText + "\n\n");
-        for (int i = 0; i < options.length; i++) {
-            displayQuestion.append((char)('A' + i)).append(") ").append(options[i]).append("\n");
+    }
+
+    // Drops anything the model repeated from the exclusion list
+    private static List<GeneratedQuestion> withoutExcluded(List<GeneratedQuestion> questions, List<String> exclude) {
+        if (exclude != null && !exclude.isEmpty()) {
+            questions.removeIf(q -> containsIgnoreCase(exclude, q.question));
         }
-        
-        session.conversationHistory.add(new ChatMessage("assistant", displayQuestion.toString()));
-        
-        return new ReviewerResponse(displayQuestion.toString(), null, false);
+        return questions;
     }
-    
-    private ReviewerResponse checkAnswer(String userAnswer, ReviewSession session) throws IOException {
 
-        String optionsText = "";
-        if (session.currentOptions != null && session.currentOptions.length > 0) {
-            optionsText = "\nOptions:\n";
-            for (int i = 0; i < session.currentOptions.length; i++) {
-                optionsText += (char)('A' + i) + ") " + session.currentOptions[i] + "\n";
-            }
+    // Turns older than the history budget only survive in the synopsis
+    static List<ChatMessage> chatPrompt(ReviewSession session, String userMessage) {
+        List<ChatMessage> messages = new ArrayList<>();
+        messages.add(new ChatMessage("system", SYSTEM_PROMPT));
+        if (session.historySynopsis != null && !session.historySynopsis.isEmpty()) {
+            messages.add(new ChatMessage("system", SYNOPSIS_HEADER + session.historySynopsis));
         }
+        messages.addAll(session.conversationHistory);
+        messages.add(new ChatMessage("user", userMessage));
+        return messages;
+    }
 
-        // Ask Groq to check the answer and return JSON with correctness
-        String checkPrompt = "Q: " + session.currentQuestion + optionsText +
-                "\nUser selected: " + userAnswer +
-                "\n\nCheck if the user's answer is correct. Reply with: Correct/Incorrect, the correct answer (from options), brief explanation (1 sentence), then JSON: " +
-                "{\"category\":\"" + (session.subject != null ? session.subject : "General") +
-                "\",\"question\":\"" + session.currentQuestion.replace("\"", "\\\"") +
-                "\",\"user_answer\":\"" + userAnswer.replace("\"", "\\\"") +
-                "\",\"correct_answer\":\"[correct option from A/B/C/D]\",\"is_correct\":true/false,\"explanation\":\"[explanation]\"}";
+    static void appendHistory(ReviewSession session, ChatMessage message) {
+        session.conversationHistory.add(message);
+        session.historySynopsis = PromptBudget.compact(session.conversationHistory, session.historySynopsis,
+                HISTORY_BUDGET);
+    }
 
-        List<ChatMessage> messages = new ArrayList<>();
-        messages.add(new ChatMessage("system",
-                "You are a tutor. Check answers quickly and provide JSON. The correct_answer must be one of the options provided."));
-        messages.add(new ChatMessage("user", checkPrompt));
+    private static void checkBudget(CallType type, GroqChatRequest request) {
+        int tokens = PromptBudget.estimateTokens(request.messages);
+        if (tokens > PromptBudget.promptBudget(type)) {
+            android.util.Log.w("ReviewerService", type + " prompt of ~" + tokens + " tokens is over its budget of "
+                    + PromptBudget.promptBudget(type));
+        }
+    }
 
-        GroqChatRequest request = new GroqChatRequest(messages);
-        request.maxTokens = 300;
+    // All non-streaming completions go through the shared executor for retries and rate limiting,
+    // and are timed under their call type
+    private retrofit2.Response<GroqChatResponse> complete(CallType type, GroqChatRequest request) throws IOException {
+        checkBudget(type, request);
+        GroqMetrics.Timing timing = metrics.start(type);
+        boolean succeeded = false;
+        Usage usage = null;
+        try {
+            retrofit2.Response<GroqChatResponse> response =
+                    calls.execute(groqApiService.chatCompletion(request), GroqCallExecutor.estimateTokens(request));
+            succeeded = response.isSuccessful();
+            if (succeeded && response.body() != null) {
+                usage = response.body().usage;
+            }
+            return response;
+        } finally {
+            timing.finish(succeeded, usage);
+        }
+    }
 
-        retrofit2.Response<GroqChatResponse> response =
-                groqApiService.chatCompletion(request).execute();
+    // Streams a completion, forwarding each text delta; returns the full text, or null on an HTTP error.
+    // The timing covers the whole stream, not just the first byte.
+    private String streamCompletion(CallType type, GroqChatRequest request,
+                                    GroqStreamReader.Listener listener) throws IOException {
+        request.stream = true;
+        checkBudget(type, request);
+        GroqMetrics.Timing timing = metrics.start(type);
+        boolean succeeded = false;
+        Usage[] usage = new Usage[1];
+        try {
+            retrofit2.Response<ResponseBody> response =
+                    calls.execute(groqApiService.chatCompletionStream(request), GroqCallExecutor.estimateTokens(request));
+            if (!response.isSuccessful() || response.body() == null) {
+                android.util.Log.e("ReviewerService", "Groq streaming HTTP error: code=" + response.code());
+                if (response.errorBody() != null) {
+                    response.errorBody().close();
+                }
+                return null;
+            }
+            try (ResponseBody body = response.body()) {
+                String text = GroqStreamReader.read(body, new GroqStreamReader.Listener() {
+                    @Override
+                    public void onDelta(String delta) {
+                        listener.onDelta(delta);
+                    }
 
-        String aiResponse = "";
-        if (response.isSuccessful() && response.body() != null &&
-                response.body().choices != null && !response.body().choices.isEmpty()) {
-            aiResponse = response.body().choices.get(0).message.content;
+                    @Override
+                    public void onUsage(Usage streamUsage) {
+                        usage[0] = streamUsage;
+                    }
+                });
+                succeeded = true;
+                return text;
+            }
+        } finally {
+            timing.finish(succeeded, usage[0]);
         }
+    }
 
-        // Extract JSON from response (Groq decides correctness)
-        QuizResult quizResult = extractQuizResult(aiResponse, session, userAnswer);
+    private static boolean containsIgnoreCase(List<String> values, String value) {
+        for (String candidate : values) {
+            if (candidate != null && candidate.equalsIgnoreCase(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private ReviewerResponse checkAnswer(String userAnswer, ReviewSession session) throws IOException {
+        // Option answers are graded from the pre-graded outcomes or the answer key; only the rest goes to Groq
+        String aiResponse = "";
+        QuizResult quizResult = gradeLocally(userAnswer, session);
+        if (quizResult == null) {
+            aiResponse = requestAnswerCheck(userAnswer, session);
+
+            // Extract JSON from response (Groq decides correctness)
+            quizResult = extractQuizResult(aiResponse, session, userAnswer);
+        }
+        session.clearPregraded();
 
         if (quizResult != null) {
             quizResult.options = session.currentOptions;
             quizResult.sessionId = session.sessionId;
         }
 
-        // Record conversation
-        session.conversationHistory.add(new ChatMessage("user", userAnswer));
-        session.conversationHistory.add(new ChatMessage("assistant", aiResponse));
-
         // Build a user-friendly message using Groq's explanation and correctness
         String displayText;
         if (quizResult != null) {
@@ -378,27 +557,303 @@ public class ReviewerService {
                     : "I couldn't check that answer right now. Please try again.";
         }
 
+        // Record conversation
+        appendHistory(session, new ChatMessage("user", userAnswer));
+        appendHistory(session, new ChatMessage("assistant",
+                aiResponse != null && !aiResponse.isEmpty() ? aiResponse : displayText));
+
+        QuizHistory reviewedItem = quizResult != null ? session.currentReviewItem : null;
+        session.currentReviewItem = null;
+
         // Move to next question or finish
         session.currentQuestionIndex++;
         if (session.currentQuestionIndex < session.questionCount) {
             session.state = SessionState.GENERATING_QUESTION;
-            return new ReviewerResponse(displayText, quizResult, false);
+            ReviewerResponse response = new ReviewerResponse(displayText, quizResult, false);
+            response.reviewedItem = reviewedItem;
+            return response;
         } else {
             session.state = SessionState.WAITING_FOR_COMMAND;
+            session.cancelPrefetch();
+            // The topic summary has been generating since the last question was served; the caller
+            // posts it as a follow-up message (see topicSummary()) so grading isn't held up by it
             String finalResponse = displayText + "\n\n✅ Completed all " +
                     session.questionCount + " questions!";
 
-            String summary = generateTopicSummary(session);
-            if (summary != null && !summary.isEmpty()) {
-                finalResponse = finalResponse + "\n\nTopic summary:\n" + summary;
+            ReviewerResponse response = new ReviewerResponse(finalResponse, quizResult, false);
+            response.reviewedItem = reviewedItem;
+            return response;
+        }
+    }
+
+    private String requestAnswerCheck(String userAnswer, ReviewSession session) throws IOException {
+        // Ask Groq to check the answer and return JSON with correctness
+        String checkPrompt = buildCheckPrompt(session.subject, session.currentQuestion,
+                session.currentOptions, userAnswer);
+
+        List<ChatMessage> messages = new ArrayList<>();
+        messages.add(new ChatMessage("system",
+                "You are a tutor. Check answers quickly and provide JSON. The correct_answer must be one of the options provided."));
+        messages.add(new ChatMessage("user", checkPrompt));
+
+        GroqChatRequest request = new GroqChatRequest(messages);
+        request.maxTokens = 300;
+
+        retrofit2.Response<GroqChatResponse> response =
+                complete(CallType.CHECK, request);
+
+        if (response.isSuccessful() && response.body() != null &&
+                response.body().choices != null && !response.body().choices.isEmpty()) {
+            return response.body().choices.get(0).message.content;
+        }
+        return "";
+    }
+
+    // Due items include ones the user got right last time, so the prompt says which kind it is
+    static String buildReviewPrompt(QuizHistory item) {
+        boolean correct = SpacedRepetition.lastAnsweredCorrectly(item);
+        return "Generate a new question similar to this one the user " +
+                (correct ? "answered correctly last time and is now due to review" : "got wrong") + ":\n" +
+                "Question: \"" + item.question + "\"\n" +
+                "Category: \"" + item.category + "\"\n\n" +
+                (correct ? "Create a similar question to check they still remember it."
+                        : "Create a similar question to help them practice this weak area.");
+    }
+
+    static String buildCheckPrompt(String subject, String question, String[] options, String userAnswer) {
+        StringBuilder prompt = new StringBuilder(512).append("Q: ").append(question);
+        if (options != null && options.length > 0) {
+            prompt.append("\nOptions:\n");
+            for (int i = 0; i < options.length; i++) {
+                prompt.append((char) ('A' + i)).append(") ").append(options[i]).append('\n');
+            }
+        }
+
+        prompt.append("\nUser selected: ").append(userAnswer)
+                .append("\n\nCheck if the user's answer is correct. Reply with: Correct/Incorrect, the correct answer (from options), brief explanation (1 sentence), then JSON: ")
+                .append("{\"category\":\"").append(subject != null ? subject : "General")
+                .append("\",\"question\":\"");
+        appendEscapedQuotes(prompt, question);
+        prompt.append("\",\"user_answer\":\"");
+        appendEscapedQuotes(prompt, userAnswer);
+        prompt.append("\",\"correct_answer\":\"[correct option from A/B/C/D]\",\"is_correct\":true/false,\"explanation\":\"[explanation]\"}");
+        return prompt.toString();
+    }
+
+    // Same as text.replace("\"", "\\\"") without the intermediate string
+    private static void appendEscapedQuotes(StringBuilder builder, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                builder.append('\\');
+            }
+            builder.append(c);
+        }
+    }
+
+    // Returns null when the answer can't be graded locally: a free-text answer, or no answer key and
+    // the background pre-grade hasn't come back
+    private QuizResult gradeLocally(String userAnswer, ReviewSession session) {
+        String[] options = session.currentOptions;
+        if (options == null) {
+            return null;
+        }
+        int selected = findSelectedOption(userAnswer, options);
+        if (selected < 0) {
+            return null;
+        }
+        QuizResult[] outcomes = session.pregradedFor(session.currentQuestion);
+        if (outcomes == null) {
+            outcomes = gradeAllOptions(session.subject, session.currentQuestion, options,
+                    session.currentAnswerIndex, null, session.currentExplanation);
+        }
+        if (outcomes == null || selected >= outcomes.length) {
+            return null;
+        }
+        // The pregraded outcomes stay cached on the session; fill in this answer on a copy
+        QuizResult result = copyOf(outcomes[selected]);
+        result.userAnswer = userAnswer;
+        return result;
+    }
+
+    private static QuizResult copyOf(QuizResult outcome) {
+        QuizResult copy = new QuizResult();
+        copy.category = outcome.category;
+        copy.question = outcome.question;
+        copy.userAnswer = outcome.userAnswer;
+        copy.correctAnswer = outcome.correctAnswer;
+        copy.isCorrect = outcome.isCorrect;
+        copy.explanation = outcome.explanation;
+        copy.options = outcome.options;
+        copy.sessionId = outcome.sessionId;
+        return copy;
+    }
+
+    // Grades the question on screen for every option while the user reads it, so the answer check
+    // doesn't wait on Groq. With an answer key this is local; otherwise one background call on the
+    // prefetch lane grades all options at once. Answers given before it finishes go to Groq as before.
+    public void pregradeOptions(ReviewSession session, TaskScheduler scheduler) {
+        if (session.state != SessionState.WAITING_FOR_ANSWER || session.currentOptions == null
+                || session.currentOptions.length == 0 || session.isPregrading(session.currentQuestion)) {
+            return;
+        }
+        final String subject = session.subject;
+        final String question = session.currentQuestion;
+        final String[] options = session.currentOptions;
+        if (session.currentAnswerIndex >= 0) {
+            session.offerPregraded(question, gradeAllOptions(subject, question, options,
+                    session.currentAnswerIndex, null, session.currentExplanation));
+            return;
+        }
+
+        Future<?> task = scheduler.submit(TaskScheduler.Lane.PREFETCH, TaskScheduler.Priority.HIGH, () -> {
+            QuizResult[] outcomes = requestPregrade(subject, question, options);
+            if (outcomes != null && !Thread.currentThread().isInterrupted()) {
+                session.offerPregraded(question, outcomes);
+            }
+        });
+        session.trackPregrade(task);
+    }
+
+    // One result per option. explanations, when given, holds a reason per option; a wrong pick shows
+    // why it is wrong followed by why the answer is right. Null if answerIndex isn't a valid option.
+    static QuizResult[] gradeAllOptions(String subject, String question, String[] options, int answerIndex,
+                                        String[] explanations, String explanation) {
+        if (options == null || answerIndex < 0 || answerIndex >= options.length || options[answerIndex] == null) {
+            return null;
+        }
+        QuizResult[] outcomes = new QuizResult[options.length];
+        for (int i = 0; i < options.length; i++) {
+            QuizResult result = new QuizResult();
+            result.category = subject != null ? subject : "General";
+            result.question = question != null ? question : "";
+            result.userAnswer = options[i];
+            result.correctAnswer = (char) ('A' + answerIndex) + ") " + options[answerIndex];
+            result.isCorrect = i == answerIndex;
+            if (explanations != null && i < explanations.length && answerIndex < explanations.length) {
+                result.explanation = i == answerIndex ? explanations[i] : explanations[i] + " " + explanations[answerIndex];
+            } else {
+                result.explanation = explanation != null ? explanation : "";
+            }
+            outcomes[i] = result;
+        }
+        return outcomes;
+    }
+
+    private QuizResult[] requestPregrade(String subject, String question, String[] options) {
+        StringBuilder prompt = new StringBuilder("Q: ").append(question).append("\nOptions:\n");
+        for (int i = 0; i < options.length; i++) {
+            prompt.append((char) ('A' + i)).append(") ").append(options[i]).append('\n');
+        }
+
+        List<ChatMessage> messages = new ArrayList<>();
+        messages.add(new ChatMessage("system",
+                "You are a tutor grading a multiple-choice question. Respond ONLY with valid JSON, no extra text: " +
+                "{\"answer_index\": 0, \"explanations\": [\"...\", \"...\", \"...\", \"...\"]} " +
+                "answer_index is the 0-based index of the correct option and explanations[i] says in 1 short " +
+                "sentence why option i is right or wrong."));
+        messages.add(new ChatMessage("user", prompt.toString()));
+
+        GroqChatRequest request = new GroqChatRequest(messages);
+        request.maxTokens = 300;
+        request.temperature = 0;
+
+        try {
+            retrofit2.Response<GroqChatResponse> response = complete(CallType.CHECK, request);
+            if (!response.isSuccessful() || response.body() == null
+                    || response.body().choices == null || response.body().choices.isEmpty()) {
+                return null;
+            }
+            String content = response.body().choices.get(0).message.content;
+            int jsonStart = content.indexOf('{');
+            int jsonEnd = content.lastIndexOf('}') + 1;
+            if (jsonStart < 0 || jsonEnd <= jsonStart) {
+                metrics.recordParseFailure(CallType.CHECK);
+                return null;
+            }
+            JsonObject json = JsonParser.parseString(content.substring(jsonStart, jsonEnd)).getAsJsonObject();
+            int answerIndex = json.has("answer_index") ? json.get("answer_index").getAsInt() : -1;
+            String[] explanations = null;
+            if (json.has("explanations") && json.get("explanations").isJsonArray()) {
+                JsonArray array = json.getAsJsonArray("explanations");
+                explanations = new String[array.size()];
+                for (int i = 0; i < array.size(); i++) {
+                    explanations[i] = array.get(i).isJsonNull() ? "" : array.get(i).getAsString();
+                }
+            }
+            QuizResult[] outcomes = gradeAllOptions(subject, question, options, answerIndex, explanations, null);
+            if (outcomes == null) {
+                metrics.recordParseFailure(CallType.CHECK);
+            }
+            return outcomes;
+        } catch (Exception e) {
+            if (!(e instanceof InterruptedIOException)) {
+                android.util.Log.w("ReviewerService", "Pre-grading options failed", e);
+            }
+            return null;
+        }
+    }
+
+    // Matches the option text sent by the option buttons, or a typed letter such as "b", "B)" or "B."
+    static int findSelectedOption(String userAnswer, String[] options) {
+        if (userAnswer == null) {
+            return -1;
+        }
+        String answer = userAnswer.trim();
+        for (int i = 0; i < options.length; i++) {
+            if (options[i] != null && options[i].trim().equalsIgnoreCase(answer)) {
+                return i;
+            }
+        }
+        if (answer.length() == 1 || (answer.length() == 2 && (answer.charAt(1) == ')' || answer.charAt(1) == '.'))) {
+            int index = Character.toUpperCase(answer.charAt(0)) - 'A';
+            if (index >= 0 && index < options.length) {
+                return index;
             }
+        }
+        return -1;
+    }
 
-            return new ReviewerResponse(finalResponse, quizResult, false);
+    // Starts the end-of-quiz summary once the last question is on screen, so it is ready by the time
+    // the final answer has been graded
+    public void prepareTopicSummary(ReviewSession session, TaskScheduler scheduler) {
+        if (session.state == SessionState.WAITING_FOR_ANSWER && session.subject != null
+                && session.currentQuestionIndex == session.questionCount - 1) {
+            topicSummary(session, scheduler);
         }
     }
 
-    private String generateTopicSummary(ReviewSession session) {
+    // The summary for the session's subject: from the session's per-subject cache, the one already
+    // generating, or a new background call. Completes with null if Groq doesn't return one or the
+    // call is cancelled before it runs (e.g. by TaskScheduler.cancelAll()).
+    public CompletableFuture<String> topicSummary(ReviewSession session, TaskScheduler scheduler) {
         String subject = session.subject != null ? session.subject : "this topic";
+        String key = subject.trim().toLowerCase(Locale.ROOT);
+        CompletableFuture<String> pending = session.topicSummaryFor(key);
+        if (pending != null) {
+            return pending;
+        }
+
+        String cached = session.cachedTopicSummary(key);
+        if (cached != null) {
+            CompletableFuture<String> future = CompletableFuture.completedFuture(cached);
+            session.trackTopicSummary(key, future);
+            return future;
+        }
+
+        CompletableFuture<String> future = new CompletableFuture<>();
+        session.trackTopicSummary(key, future);
+        scheduler.submit(TaskScheduler.Lane.PREFETCH, TaskScheduler.Priority.NORMAL, () -> {
+            String summary = generateTopicSummary(subject);
+            if (summary != null && !summary.isEmpty()) {
+                session.cacheTopicSummary(key, future, summary);
+            }
+            future.complete(summary);
+        }, () -> future.complete(null));
+        return future;
+    }
+
+    private String generateTopicSummary(String subject) {
         try {
             List<ChatMessage> messages = new ArrayList<>();
             messages.add(new ChatMessage(
@@ -414,7 +869,7 @@ public class ReviewerService {
             request.maxTokens = 256;
 
             retrofit2.Response<GroqChatResponse> response =
-                    groqApiService.chatCompletion(request).execute();
+                    complete(CallType.SUMMARY, request);
 
             if (response.isSuccessful() && response.body() != null &&
                     response.body().choices != null && !response.body().choices.isEmpty()) {
@@ -427,6 +882,25 @@ public class ReviewerService {
     }
 
     private QuizResult extractQuizResult(String response, ReviewSession session, String userAnswer) {
+        QuizResult parsed = parseQuizResult(response, session.subject, session.currentQuestion, userAnswer);
+        if (parsed != null) {
+            return parsed;
+        }
+
+        // Fallback: create a basic result using Groq-provided question context
+        metrics.recordParseFailure(CallType.CHECK);
+        QuizResult result = new QuizResult();
+        result.category = session.subject != null ? session.subject : "General";
+        result.question = session.currentQuestion != null ? session.currentQuestion : "";
+        result.userAnswer = userAnswer;
+        result.correctAnswer = "";
+        result.isCorrect = false;
+        result.explanation = "Could not parse response. Please check manually.";
+        return result;
+    }
+
+    // The JSON object embedded in an answer-check reply; null if there isn't a parseable one
+    static QuizResult parseQuizResult(String response, String subject, String question, String userAnswer) {
         try {
             int jsonStart = response.indexOf("{");
             int jsonEnd = response.lastIndexOf("}") + 1;
@@ -436,9 +910,9 @@ public class ReviewerService {
 
                 QuizResult result = new QuizResult();
                 result.category = json.has("category") ? json.get("category").getAsString() :
-                        (session.subject != null ? session.subject : "General");
+                        (subject != null ? subject : "General");
                 result.question = json.has("question") ? json.get("question").getAsString() :
-                        (session.currentQuestion != null ? session.currentQuestion : "");
+                        (question != null ? question : "");
                 result.userAnswer = json.has("user_answer") ? json.get("user_answer").getAsString() : userAnswer;
                 result.correctAnswer = json.has("correct_answer") ? json.get("correct_answer").getAsString() : "";
                 result.isCorrect = json.has("is_correct") && json.get("is_correct").getAsBoolean();
@@ -449,16 +923,7 @@ public class ReviewerService {
         } catch (Exception e) {
             e.printStackTrace();
         }
-
-        // Fallback: create a basic result using Groq-provided question context
-        QuizResult result = new QuizResult();
-        result.category = session.subject != null ? session.subject : "General";
-        result.question = session.currentQuestion != null ? session.currentQuestion : "";
-        result.userAnswer = userAnswer;
-        result.correctAnswer = "";
-        result.isCorrect = false;
-        result.explanation = "Could not parse response. Please check manually.";
-        return result;
+        return null;
     }
 
     public ReviewerResponse generateWeakTopicQuestion(ReviewSession session, List<QuizHistory> weakQuestions) throws IOException {
@@ -475,11 +940,10 @@ public class ReviewerService {
         }
 
 
-        QuizHistory referenceQuestion = weakQuestions.get(0);
-        String context = "Generate a new question similar to this one the user got wrong:\n" +
-                "Question: \"" + referenceQuestion.question + "\"\n" +
-                "Category: \"" + referenceQuestion.category + "\"\n\n" +
-                "Create a similar question to help them practice this weak area.";
+        // The review queue is ordered most overdue first; walk it so each question practices a different item
+        QuizHistory referenceQuestion = weakQuestions.get(session.currentQuestionIndex % weakQuestions.size());
+        session.currentReviewItem = referenceQuestion;
+        String context = buildReviewPrompt(referenceQuestion);
 
         List<ChatMessage> messages = new ArrayList<>();
         messages.add(new ChatMessage("system", SYSTEM_PROMPT));
@@ -489,7 +953,7 @@ public class ReviewerService {
         request.maxTokens = 256;
 
         retrofit2.Response<GroqChatResponse> response =
-                groqApiService.chatCompletion(request).execute();
+                complete(CallType.WEAK_TOPIC, request);
 
         String question = "Let me think of a question...";
         if (response.isSuccessful() && response.body() != null &&
@@ -498,6 +962,9 @@ public class ReviewerService {
         }
 
         session.currentQuestion = question;
+        session.currentOptions = null;
+        session.currentAnswerIndex = -1;
+        session.currentExplanation = null;
         session.state = SessionState.WAITING_FOR_ANSWER;
 
         return new ReviewerResponse(question, null, false);
@@ -8,24 +8,27 @@ import com.example.studybuddy.api.ChatMessage;
 import com.example.studybuddy.api.GroqApiService;
 import com.example.studybuddy.api.QuizResult;
 import com.example.studybuddy.data.AppDatabase;
-import com.example.studybuddy.data.CategoryPerformance;
 import com.example.studybuddy.data.QuizHistory;
 import com.example.studybuddy.data.QuizHistoryDao;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class ReviewerViewModel extends AndroidViewModel {
     private AppDatabase database;
     private QuizHistoryDao dao;
     private GroqApiService groqApiService;
     private ReviewerService reviewerService;
-    private ExecutorService executorService;
+    private TaskScheduler scheduler;
+    private QuizResultWriter resultWriter;
+    private SessionStore sessionStore;
+    private boolean started;
     
     public ReviewSession session = new ReviewSession();
     
-    private MutableLiveData<List<ChatMessage>> messages = new MutableLiveData<>();
+    private final MessageLog messageLog = new MessageLog();
+    // Id of the assistant reply that is still streaming, or 0
+    private long streamingMessageId;
     private MutableLiveData<Boolean> isLoading = new MutableLiveData<>();
     private MutableLiveData<String> error = new MutableLiveData<>();
     
@@ -36,15 +39,19 @@ public class ReviewerViewModel extends AndroidViewModel {
         super(application);
         database = AppDatabase.getDatabase(application);
         dao = database.quizHistoryDao();
-        executorService = Executors.newSingleThreadExecutor();
+        scheduler = new TaskScheduler();
+        resultWriter = new QuizResultWriter(dao, scheduler,
+                new File(application.getFilesDir(), "pending_quiz_results.jsonl"));
+        resultWriter.recover();
+        sessionStore = new SessionStore(database.sessionStoreDao(), scheduler);
         
 
         groqApiService = GroqApiService.Factory.create(GROQ_API_KEY);
-        reviewerService = new ReviewerService(groqApiService);
+        reviewerService = new ReviewerService(groqApiService, new QuestionBank(database.questionBankDao(), scheduler));
     }
     
-    public LiveData<List<ChatMessage>> getMessages() {
-        return messages;
+    public MessageLog getMessageLog() {
+        return messageLog;
     }
     
     public LiveData<Boolean> getIsLoading() {
@@ -55,14 +62,33 @@ public class ReviewerViewModel extends AndroidViewModel {
         return error;
     }
     
+    // Called by every new MainActivity; only the first call per view model does anything, so a
+    // rotation keeps the chat as it is while a new process resumes an unfinished quiz
     public void startSession() {
-        executorService.execute(() -> {
+        if (started) {
+            return;
+        }
+        started = true;
+        scheduler.submit(TaskScheduler.Lane.INTERACTIVE, () -> {
             isLoading.postValue(true);
             try {
+                List<ChatMessage> restored = sessionStore.restore(session);
+                if (restored != null) {
+                    synchronized (this) {
+                        messageLog.restore(restored);
+                        streamingMessageId = 0;
+                    }
+                    resumeQuiz();
+                    return;
+                }
+                sessionStore.clear();
+
                 String greeting = reviewerService.getGreeting();
-                List<ChatMessage> initialMessages = new ArrayList<>();
-                initialMessages.add(new ChatMessage("assistant", greeting));
-                messages.postValue(initialMessages);
+                synchronized (this) {
+                    messageLog.clear();
+                    streamingMessageId = 0;
+                }
+                postMessage(new ChatMessage("assistant", greeting));
                 session.state = SessionState.WAITING_FOR_COMMAND;
             } catch (Exception e) {
                 String message = e.getMessage();
@@ -78,26 +104,31 @@ public class ReviewerViewModel extends AndroidViewModel {
         });
     }
     
+    // Picks the restored quiz up where the previous process left it
+    private void resumeQuiz() {
+        if (session.state == SessionState.GENERATING_QUESTION) {
+            generateNextQuestion();
+        } else if (session.state == SessionState.WAITING_FOR_ANSWER) {
+            reviewerService.prefetchQuestions(session, scheduler);
+            reviewerService.pregradeOptions(session, scheduler);
+            reviewerService.prepareTopicSummary(session, scheduler);
+        }
+    }
+
     public void sendMessage(String userMessage) {
         if (userMessage == null || userMessage.trim().isEmpty()) {
             return;
         }
         
-        executorService.execute(() -> {
+        scheduler.submit(TaskScheduler.Lane.INTERACTIVE, () -> {
             isLoading.postValue(true);
             
             // Add user message to UI
-            List<ChatMessage> currentMessages = messages.getValue();
-            if (currentMessages == null) {
-                currentMessages = new ArrayList<>();
-            } else {
-                currentMessages = new ArrayList<>(currentMessages);
-            }
-            currentMessages.add(new ChatMessage("user", userMessage));
-            messages.postValue(currentMessages);
+            postMessage(new ChatMessage("user", userMessage));
             
             try {
-                ReviewerResponse response = reviewerService.processUserMessage(userMessage, session);
+                ReviewerResponse response =
+                        reviewerService.processUserMessage(userMessage, session, this::postPartialMessage);
                 
                 // Handle weak topics request
                 if (response.shouldRequestWeakTopics) {
@@ -105,14 +136,6 @@ public class ReviewerViewModel extends AndroidViewModel {
                     return;
                 }
                 
-
-                List<ChatMessage> updatedMessages = messages.getValue();
-                if (updatedMessages == null) {
-                    updatedMessages = new ArrayList<>();
-                } else {
-                    updatedMessages = new ArrayList<>(updatedMessages);
-                }
-                
                 // Add options if this is a question
                 ChatMessage aiMessage;
                 if (session.state == SessionState.WAITING_FOR_ANSWER && session.currentOptions != null) {
@@ -120,12 +143,24 @@ public class ReviewerViewModel extends AndroidViewModel {
                 } else {
                     aiMessage = new ChatMessage("assistant", response.text);
                 }
-                updatedMessages.add(aiMessage);
-                messages.postValue(updatedMessages);
+                postMessage(aiMessage);
+
+                // Start generating the next question(s) and grading this one while the user reads it
+                reviewerService.prefetchQuestions(session, scheduler);
+                reviewerService.pregradeOptions(session, scheduler);
+                reviewerService.prepareTopicSummary(session, scheduler);
                 
 
                 if (response.quizResult != null) {
                     saveQuizResult(response.quizResult);
+                    if (response.reviewedItem != null) {
+                        recordReview(response.reviewedItem, response.quizResult.isCorrect);
+                    }
+                    // Quiz finished: persist the batch so history and weak topics see it
+                    if (session.state == SessionState.WAITING_FOR_COMMAND) {
+                        resultWriter.flush();
+                        postTopicSummary();
+                    }
                 }
                 
 
@@ -135,6 +170,7 @@ public class ReviewerViewModel extends AndroidViewModel {
                 }
                 
             } catch (Exception e) {
+                discardStreamingMessage();
                 String message = e.getMessage();
                 if (message != null && message.contains("Chain validation failed")) {
                     error.postValue("Secure connection failed. Please check your internet connection and device date/time, then try again.");
@@ -143,28 +179,24 @@ public class ReviewerViewModel extends AndroidViewModel {
                 }
                 android.util.Log.e("ReviewerViewModel", "Error sending message", e);
             } finally {
+                sessionStore.saveSession(session);
                 isLoading.postValue(false);
             }
         });
     }
     
     private void generateNextQuestion() {
-        executorService.execute(() -> {
+        scheduler.submit(TaskScheduler.Lane.INTERACTIVE, () -> {
             try {
                 ReviewerResponse response;
                 if (session.weakTopics != null && session.weakQuestions != null && 
                     !session.weakQuestions.isEmpty()) {
                     response = reviewerService.generateWeakTopicQuestion(session, session.weakQuestions);
                 } else {
-                    response = reviewerService.processUserMessage("generate_next_question", session);
+                    response = reviewerService.processUserMessage(
+                            "generate_next_question", session, this::postPartialMessage);
                 }
                 
-                List<ChatMessage> updatedMessages = messages.getValue();
-                if (updatedMessages == null) {
-                    updatedMessages = new ArrayList<>();
-                } else {
-                    updatedMessages = new ArrayList<>(updatedMessages);
-                }
                 // Add options if this is a question
                 ChatMessage aiMessage;
                 if (session.state == SessionState.WAITING_FOR_ANSWER && session.currentOptions != null) {
@@ -172,100 +204,188 @@ public class ReviewerViewModel extends AndroidViewModel {
                 } else {
                     aiMessage = new ChatMessage("assistant", response.text);
                 }
-                updatedMessages.add(aiMessage);
-                messages.postValue(updatedMessages);
+                postMessage(aiMessage);
+
+                // Start generating the next question(s) and grading this one while the user reads it
+                reviewerService.prefetchQuestions(session, scheduler);
+                reviewerService.pregradeOptions(session, scheduler);
+                reviewerService.prepareTopicSummary(session, scheduler);
                 
                 // Save quiz result if available
                 if (response.quizResult != null) {
                     saveQuizResult(response.quizResult);
                 }
             } catch (Exception e) {
+                discardStreamingMessage();
                 error.postValue("Error generating question: " + e.getMessage());
+            } finally {
+                sessionStore.saveSession(session);
             }
         });
     }
     
     private void loadWeakTopics() {
-        executorService.execute(() -> {
+        // The user is waiting on this read, so it goes ahead of queued writes
+        scheduler.submit(TaskScheduler.Lane.DATABASE, TaskScheduler.Priority.HIGH, () -> {
             try {
-                List<CategoryPerformance> performance = dao.getCategoryPerformance();
-                if (performance == null) {
-                    performance = new ArrayList<>();
-                }
-                
-                List<String> weakCategories = new ArrayList<>();
+                // Buffered answers count too
+                resultWriter.flushNow();
                 
-                for (CategoryPerformance perf : performance) {
-                    if (perf != null && perf.category != null && perf.incorrect > 0 && 
-                        perf.total > 0 && ((double) perf.incorrect / perf.total) > 0.3) {
-                        weakCategories.add(perf.category);
-                    }
-                }
+                // category_stats is maintained by triggers, so this is one row per category
+                List<String> weakCategories = database.categoryStatsDao().getWeakCategories();
                 
-                if (weakCategories.isEmpty()) {
-                    List<ChatMessage> updatedMessages = messages.getValue();
-                    if (updatedMessages == null) {
-                        updatedMessages = new ArrayList<>();
-                    } else {
-                        updatedMessages = new ArrayList<>(updatedMessages);
+                // Items whose review is due; if none are due yet, practice the oldest mistakes instead
+                List<QuizHistory> weakQuestions = new ArrayList<>();
+                if (!weakCategories.isEmpty()) {
+                    weakQuestions = dao.getDueQuestions(weakCategories, System.currentTimeMillis(), 20);
+                    if (weakQuestions.isEmpty()) {
+                        weakQuestions = dao.getWeakQuestions(weakCategories, 20);
                     }
-                    updatedMessages.add(new ChatMessage("assistant", 
-                        "Great news! You don't have any weak topics yet, or you haven't taken enough quizzes. Try taking a regular quiz first!"));
-                    messages.postValue(updatedMessages);
-                    session.state = SessionState.WAITING_FOR_COMMAND;
-                    return;
                 }
-                
-                session.weakTopics = weakCategories;
-                List<QuizHistory> weakQuestions = dao.getWeakQuestions(weakCategories, 20);
-                session.weakQuestions = weakQuestions;
-                
-                session.subject = String.join(", ", weakCategories);
-                session.questionCount = Math.min(weakQuestions.size(), 10);
-                session.currentQuestionIndex = 0;
-                session.state = SessionState.GENERATING_QUESTION;
-                
-                generateNextQuestion();
-                
+                List<QuizHistory> reviewQueue = weakQuestions;
+
+                // Session state is only changed from the interactive lane
+                scheduler.submit(TaskScheduler.Lane.INTERACTIVE, () -> startWeakTopicReview(weakCategories, reviewQueue));
             } catch (Exception e) {
                 error.postValue("Error loading weak topics: " + e.getMessage());
             }
         });
     }
+
+    private void startWeakTopicReview(List<String> weakCategories, List<QuizHistory> weakQuestions) {
+        if (weakCategories.isEmpty()) {
+            postMessage(new ChatMessage("assistant", 
+                "Great news! You don't have any weak topics yet, or you haven't taken enough quizzes. Try taking a regular quiz first!"));
+            session.state = SessionState.WAITING_FOR_COMMAND;
+            return;
+        }
+        
+        session.cancelBackgroundWork();
+        session.weakTopics = weakCategories;
+        session.weakQuestions = weakQuestions;
+        
+        session.subject = String.join(", ", weakCategories);
+        session.questionCount = Math.min(weakQuestions.size(), 10);
+        session.currentQuestionIndex = 0;
+        session.state = SessionState.GENERATING_QUESTION;
+        sessionStore.saveSession(session);
+        
+        generateNextQuestion();
+    }
     
     private void saveQuizResult(QuizResult result) {
-        executorService.execute(() -> {
+        try {
+            if (result == null) {
+                android.util.Log.w("ReviewerViewModel", "Attempted to save null quiz result");
+                return;
+            }
+            
+            QuizHistory quizHistory = new QuizHistory(
+                result.category != null ? result.category : "Unknown",
+                result.question != null ? result.question : "",
+                result.userAnswer != null ? result.userAnswer : "",
+                result.correctAnswer != null ? result.correctAnswer : "",
+                result.isCorrect,
+                result.explanation != null ? result.explanation : ""
+            );
+            
+            if (result.options != null && result.options.length > 0) {
+                quizHistory.options = result.options;
+            }
+            
+            // Save session ID
+            quizHistory.sessionId = result.sessionId != null ? result.sessionId : session.sessionId;
+            
+            // The first answer is the item's first review
+            SpacedRepetition.review(quizHistory, quizHistory.isCorrect, quizHistory.timestamp);
+            
+            // Synced to the journal before this returns; inserted later with the rest of the batch
+            resultWriter.enqueue(quizHistory);
+        } catch (Exception e) {
+            android.util.Log.e("ReviewerViewModel", "Error saving quiz result", e);
+            error.postValue("Error saving quiz result: " + e.getMessage());
+        }
+    }
+    
+    private void recordReview(QuizHistory item, boolean correct) {
+        scheduler.submit(TaskScheduler.Lane.DATABASE, () -> {
             try {
-                if (result == null) {
-                    android.util.Log.w("ReviewerViewModel", "Attempted to save null quiz result");
-                    return;
-                }
-                
-                QuizHistory quizHistory = new QuizHistory(
-                    result.category != null ? result.category : "Unknown",
-                    result.question != null ? result.question : "",
-                    result.userAnswer != null ? result.userAnswer : "",
-                    result.correctAnswer != null ? result.correctAnswer : "",
-                    result.isCorrect,
-                    result.explanation != null ? result.explanation : ""
-                );
-                
-                // Save options as JSON string
-                if (result.options != null && result.options.length > 0) {
-                    quizHistory.options = new com.google.gson.Gson().toJson(result.options);
-                }
-                
-                // Save session ID
-                quizHistory.sessionId = result.sessionId != null ? result.sessionId : session.sessionId;
-                
-                dao.insert(quizHistory);
-                android.util.Log.d("ReviewerViewModel", "Quiz result saved successfully");
+                // The session still reads the original from the UI side; schedule and write a copy
+                QuizHistory reviewed = copyOf(item);
+                SpacedRepetition.review(reviewed, correct, System.currentTimeMillis());
+                dao.update(reviewed);
             } catch (Exception e) {
-                android.util.Log.e("ReviewerViewModel", "Error saving quiz result", e);
-                error.postValue("Error saving quiz result: " + e.getMessage());
+                android.util.Log.e("ReviewerViewModel", "Error updating review schedule", e);
+            }
+        });
+    }
+    
+    private static QuizHistory copyOf(QuizHistory item) {
+        QuizHistory copy = new QuizHistory(item.category, item.question, item.userAnswer,
+                item.correctAnswer, item.isCorrect, item.explanation);
+        copy.id = item.id;
+        copy.timestamp = item.timestamp;
+        copy.reviewCount = item.reviewCount;
+        copy.lastReviewed = item.lastReviewed;
+        copy.options = item.options;
+        copy.sessionId = item.sessionId;
+        copy.easeFactor = item.easeFactor;
+        copy.intervalDays = item.intervalDays;
+        copy.dueAt = item.dueAt;
+        return copy;
+    }
+    
+    // Appends a message, replacing the in-progress streamed message if there is one
+    private synchronized void postMessage(ChatMessage message) {
+        if (streamingMessageId != 0) {
+            messageLog.replace(streamingMessageId, message);
+        } else {
+            messageLog.append(message);
+        }
+        streamingMessageId = 0;
+        sessionStore.saveMessage(message);
+    }
+
+    // Follows the final grading with the topic summary once it is ready, which is usually already
+    private void postTopicSummary() {
+        reviewerService.topicSummary(session, scheduler).thenAccept(summary -> {
+            if (summary != null && !summary.isEmpty()) {
+                appendMessage(new ChatMessage("assistant", "Topic summary:\n" + summary));
             }
         });
     }
+
+    // Adds a message that may arrive from another lane; a reply still streaming stays last
+    private synchronized void appendMessage(ChatMessage message) {
+        if (streamingMessageId != 0) {
+            messageLog.insertBefore(streamingMessageId, message);
+        } else {
+            messageLog.append(message);
+        }
+        sessionStore.saveMessage(message);
+    }
+
+    private synchronized void postPartialMessage(String text) {
+        ChatMessage partial = new ChatMessage("assistant", text);
+        partial.streaming = true;
+        if (streamingMessageId != 0) {
+            messageLog.replace(streamingMessageId, partial);
+        } else {
+            streamingMessageId = messageLog.append(partial);
+        }
+    }
+
+    private synchronized void discardStreamingMessage() {
+        if (streamingMessageId != 0) {
+            messageLog.remove(streamingMessageId);
+        }
+        streamingMessageId = 0;
+    }
+    
+    // Called when the app leaves the foreground
+    public void flushPendingResults() {
+        resultWriter.flush();
+    }
     
     public void clearError() {
         error.setValue(null);
@@ -274,7 +394,9 @@ public class ReviewerViewModel extends AndroidViewModel {
     @Override
     protected void onCleared() {
         super.onCleared();
-        executorService.shutdown();
+        session.cancelBackgroundWork();
+        resultWriter.close();
+        scheduler.shutdown();
     }
 }
 
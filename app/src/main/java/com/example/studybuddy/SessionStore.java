@@ -0,0 +1,155 @@
+package com.example.studybuddy;
+
+import com.example.studybuddy.api.ChatMessage;
+import com.example.studybuddy.data.QuizHistory;
+import com.example.studybuddy.data.SessionSnapshot;
+import com.example.studybuddy.data.SessionStoreDao;
+import com.example.studybuddy.data.TranscriptEntry;
+import com.google.gson.Gson;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Persists the chat transcript and ReviewSession state so a quiz survives process death.
+// Messages are written as they are posted and the session is snapshotted after every turn, both
+// on the database lane. On a cold start only the newest RESTORE_TAIL messages are read back, so
+// restoring costs the same however long the transcript is, and each snapshot trims the transcript to
+// that tail so resuming quiz after quiz doesn't grow it.
+public class SessionStore {
+    private static final String TAG = "SessionStore";
+
+    // Comfortably more than fit on screen
+    static final int RESTORE_TAIL = 30;
+
+    private final SessionStoreDao dao;
+    private final TaskScheduler scheduler;
+    private final Gson gson = new Gson();
+
+    public SessionStore(SessionStoreDao dao, TaskScheduler scheduler) {
+        this.dao = dao;
+        this.scheduler = scheduler;
+    }
+
+    // The message must already have its MessageLog id
+    public void saveMessage(ChatMessage message) {
+        TranscriptEntry entry = new TranscriptEntry();
+        entry.id = message.id;
+        entry.role = message.role;
+        entry.content = message.content;
+        entry.options = message.options;
+        entry.createdAt = System.currentTimeMillis();
+        scheduler.submit(TaskScheduler.Lane.DATABASE, () -> {
+            try {
+                dao.upsertMessage(entry);
+            } catch (Exception e) {
+                android.util.Log.e(TAG, "Error saving message", e);
+            }
+        });
+    }
+
+    // Copies the session on the calling thread (the one that owns it) and writes the copy in the background
+    public void saveSession(ReviewSession session) {
+        SessionSnapshot snapshot = new SessionSnapshot();
+        snapshot.state = session.state.name();
+        snapshot.subject = session.subject;
+        snapshot.questionCount = session.questionCount;
+        snapshot.currentQuestionIndex = session.currentQuestionIndex;
+        snapshot.currentQuestion = session.currentQuestion;
+        snapshot.currentOptions = session.currentOptions;
+        snapshot.currentAnswerIndex = session.currentAnswerIndex;
+        snapshot.currentExplanation = session.currentExplanation;
+        snapshot.sessionId = session.sessionId;
+        snapshot.askedQuestions = session.askedQuestions.toArray(new String[0]);
+        snapshot.weakTopics = session.weakTopics != null ? session.weakTopics.toArray(new String[0]) : null;
+        snapshot.weakQuestionsJson = session.weakQuestions != null ? gson.toJson(session.weakQuestions) : null;
+        snapshot.conversationJson = gson.toJson(session.conversationHistory);
+        snapshot.historySynopsis = session.historySynopsis;
+        snapshot.updatedAt = System.currentTimeMillis();
+        scheduler.submit(TaskScheduler.Lane.DATABASE, () -> {
+            try {
+                dao.saveSnapshot(snapshot);
+                dao.trimTranscript(RESTORE_TAIL);
+            } catch (Exception e) {
+                android.util.Log.e(TAG, "Error saving session", e);
+            }
+        });
+    }
+
+    public void clear() {
+        scheduler.submit(TaskScheduler.Lane.DATABASE, () -> {
+            try {
+                dao.clear();
+            } catch (Exception e) {
+                android.util.Log.e(TAG, "Error clearing session store", e);
+            }
+        });
+    }
+
+    // Reads back a quiz that was still in progress into session and returns its transcript tail, oldest
+    // first; null if there is nothing to resume. Blocks on the database, so call it off the main thread.
+    public List<ChatMessage> restore(ReviewSession session) {
+        SessionSnapshot snapshot;
+        List<TranscriptEntry> tail;
+        try {
+            snapshot = dao.getSnapshot();
+            if (snapshot == null || !isResumable(snapshot.state)) {
+                return null;
+            }
+            tail = dao.getTail(RESTORE_TAIL);
+        } catch (Exception e) {
+            android.util.Log.e(TAG, "Error restoring session", e);
+            return null;
+        }
+
+        session.reset();
+        session.state = SessionState.valueOf(snapshot.state);
+        session.subject = snapshot.subject;
+        session.questionCount = snapshot.questionCount;
+        session.currentQuestionIndex = snapshot.currentQuestionIndex;
+        session.currentQuestion = snapshot.currentQuestion;
+        session.currentOptions = snapshot.currentOptions;
+        session.currentAnswerIndex = snapshot.currentAnswerIndex;
+        session.currentExplanation = snapshot.currentExplanation;
+        session.sessionId = snapshot.sessionId;
+        if (snapshot.askedQuestions != null) {
+            session.askedQuestions.addAll(Arrays.asList(snapshot.askedQuestions));
+        }
+        session.weakTopics = snapshot.weakTopics != null ? new ArrayList<>(Arrays.asList(snapshot.weakTopics)) : null;
+        if (snapshot.weakQuestionsJson != null) {
+            session.weakQuestions = new ArrayList<>(Arrays.asList(
+                    gson.fromJson(snapshot.weakQuestionsJson, QuizHistory[].class)));
+        }
+        if (snapshot.conversationJson != null) {
+            session.conversationHistory.addAll(Arrays.asList(
+                    gson.fromJson(snapshot.conversationJson, ChatMessage[].class)));
+        }
+        session.historySynopsis = snapshot.historySynopsis;
+
+        List<ChatMessage> messages = new ArrayList<>(tail.size());
+        for (int i = tail.size() - 1; i >= 0; i--) {
+            TranscriptEntry entry = tail.get(i);
+            ChatMessage message = new ChatMessage(entry.role, entry.content, entry.options);
+            message.id = entry.id;
+            // Every question before the current one has been answered
+            message.answered = message.hasOptions();
+            messages.add(message);
+        }
+        if (session.state == SessionState.WAITING_FOR_ANSWER) {
+            for (int i = messages.size() - 1; i >= 0; i--) {
+                if (messages.get(i).hasOptions()) {
+                    messages.get(i).answered = false;
+                    break;
+                }
+            }
+        }
+        android.util.Log.d(TAG, "Restored " + messages.size() + " messages at question "
+                + (session.currentQuestionIndex + 1) + " of " + session.questionCount);
+        return messages;
+    }
+
+    private static boolean isResumable(String state) {
+        return SessionState.ASKING_QUESTION_COUNT.name().equals(state)
+                || SessionState.GENERATING_QUESTION.name().equals(state)
+                || SessionState.WAITING_FOR_ANSWER.name().equals(state);
+    }
+}
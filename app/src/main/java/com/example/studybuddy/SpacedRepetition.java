@@ -0,0 +1,47 @@
+package com.example.studybuddy;
+
+import com.example.studybuddy.data.QuizHistory;
+import java.util.concurrent.TimeUnit;
+
+// SM-2 scheduling for answered questions. Answers are only right or wrong, so they map to
+// two fixed recall grades. A wrong answer puts the item back in the queue straight away
+// (relearning) instead of waiting a day as plain SM-2 would.
+public final class SpacedRepetition {
+    public static final double DEFAULT_EASE = 2.5;
+    static final double MIN_EASE = 1.3;
+    static final int GRADE_CORRECT = 4;
+    static final int GRADE_INCORRECT = 1;
+
+    private SpacedRepetition() {
+    }
+
+    // Updates ease, interval, due date and review bookkeeping on the item; the caller persists it
+    public static void review(QuizHistory item, boolean correct, long now) {
+        int grade = correct ? GRADE_CORRECT : GRADE_INCORRECT;
+        if (grade < 3) {
+            item.intervalDays = 0;
+        } else if (item.intervalDays <= 0) {
+            item.intervalDays = 1;
+        } else if (item.intervalDays == 1) {
+            item.intervalDays = 6;
+        } else {
+            item.intervalDays = (int) Math.round(item.intervalDays * item.easeFactor);
+        }
+        item.easeFactor = nextEase(item.easeFactor, grade);
+        item.dueAt = now + TimeUnit.DAYS.toMillis(item.intervalDays);
+        item.reviewCount++;
+        item.lastReviewed = now;
+    }
+
+    // A wrong answer resets the interval and a right one sets it to at least a day, so the interval
+    // reflects the latest review rather than the first answer stored in isCorrect
+    public static boolean lastAnsweredCorrectly(QuizHistory item) {
+        return item.intervalDays > 0;
+    }
+
+    static double nextEase(double ease, int grade) {
+        int miss = 5 - grade;
+        double next = ease + 0.1 - miss * (0.08 + miss * 0.02);
+        return Math.max(MIN_EASE, next);
+    }
+}
@@ -8,6 +8,7 @@ import android.view.View;
 
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.example.studybuddy.api.GroqApiService;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
@@ -30,6 +31,9 @@ public class SplashActivity extends AppCompatActivity {
         
         FirebaseApp.initializeApp(this);
 
+        // Handshake with Groq while the splash is showing so the first quiz request skips it
+        GroqApiService.Factory.prewarm();
+
         if (getSupportActionBar() != null) {
             getSupportActionBar().hide();
         }
@@ -0,0 +1,121 @@
+package com.example.studybuddy;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.util.ArrayList;
+import java.util.List;
+
+// Incremental parser for the question generator schema while the completion is still streaming.
+// Exposes the first question's text as it arrives and every question object once its closing brace is seen.
+public class StreamingQuestionParser {
+    private static final String QUESTION_KEY = "\"question\"";
+
+    private final StringBuilder buffer = new StringBuilder();
+    private final List<Integer> openObjects = new ArrayList<>();
+    private final List<GeneratedQuestion> completed = new ArrayList<>();
+    private int scanned = 0;
+    private boolean inString = false;
+    private boolean escaped = false;
+    private String firstQuestion;
+
+    public void append(String chunk) {
+        buffer.append(chunk);
+        for (; scanned < buffer.length(); scanned++) {
+            char c = buffer.charAt(scanned);
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+            } else if (c == '"') {
+                inString = true;
+            } else if (c == '{') {
+                openObjects.add(scanned);
+            } else if (c == '}' && !openObjects.isEmpty()) {
+                int start = openObjects.remove(openObjects.size() - 1);
+                onObjectClosed(start, scanned + 1);
+            }
+        }
+    }
+
+    public List<GeneratedQuestion> completedQuestions() {
+        return completed;
+    }
+
+    // Text of the first question so far, or null if its value hasn't started yet
+    public String firstQuestionText() {
+        if (firstQuestion != null) {
+            return firstQuestion;
+        }
+        int key = buffer.indexOf(QUESTION_KEY);
+        if (key < 0) {
+            return null;
+        }
+        int i = key + QUESTION_KEY.length();
+        while (i < buffer.length() && (buffer.charAt(i) == ':' || Character.isWhitespace(buffer.charAt(i)))) {
+            i++;
+        }
+        if (i >= buffer.length() || buffer.charAt(i) != '"') {
+            return null;
+        }
+
+        StringBuilder value = new StringBuilder();
+        for (i = i + 1; i < buffer.length(); i++) {
+            char c = buffer.charAt(i);
+            if (c == '"') {
+                firstQuestion = value.toString();
+                return firstQuestion;
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (i + 1 >= buffer.length()) {
+                break;
+            }
+            char escape = buffer.charAt(++i);
+            switch (escape) {
+                case 'n': value.append('\n'); break;
+                case 't': value.append('\t'); break;
+                case 'r': break;
+                case 'u':
+                    if (i + 4 >= buffer.length()) {
+                        return value.toString();
+                    }
+                    try {
+                        value.append((char) Integer.parseInt(buffer.substring(i + 1, i + 5), 16));
+                    } catch (NumberFormatException ignored) {
+                    }
+                    i += 4;
+                    break;
+                default: value.append(escape); break;
+            }
+        }
+        return value.toString();
+    }
+
+    private void onObjectClosed(int start, int end) {
+        String candidate = buffer.substring(start, end);
+        if (!candidate.contains(QUESTION_KEY)) {
+            return;
+        }
+        try {
+            JsonElement element = JsonParser.parseString(candidate);
+            if (element.isJsonObject()) {
+                JsonObject object = element.getAsJsonObject();
+                if (object.has("question")) {
+                    GeneratedQuestion question = QuestionParser.fromJson(object);
+                    if (question != null) {
+                        completed.add(question);
+                    }
+                }
+            }
+        } catch (Exception ignored) {
+            // Not a question object (or not valid JSON yet); the final parse will handle it
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.studybuddy;
+
+import java.util.Locale;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Runs background work on separate single-threaded lanes so a slow Groq call can't hold up
+// database writes (and the other way round). Within a lane, higher priority tasks run first
+// and tasks of equal priority keep their submission order.
+public class TaskScheduler {
+    public enum Lane {
+        // User-facing Groq calls and session state changes; keep every task NORMAL so they stay in order
+        INTERACTIVE(Thread.NORM_PRIORITY),
+        // Speculative work such as question prefetch; first to lose CPU
+        PREFETCH(Thread.MIN_PRIORITY),
+        // Room reads and writes
+        DATABASE(Thread.NORM_PRIORITY - 1);
+
+        final int threadPriority;
+
+        Lane(int threadPriority) {
+            this.threadPriority = threadPriority;
+        }
+    }
+
+    public enum Priority {
+        HIGH,
+        NORMAL,
+        LOW
+    }
+
+    public static class LaneStats {
+        public final Lane lane;
+        public final int queueDepth;
+        public final int maxQueueDepth;
+        public final long submitted;
+        public final long completed;
+        public final long cancelled;
+
+        LaneStats(Lane lane, int queueDepth, int maxQueueDepth, long submitted, long completed, long cancelled) {
+            this.lane = lane;
+            this.queueDepth = queueDepth;
+            this.maxQueueDepth = maxQueueDepth;
+            this.submitted = submitted;
+            this.completed = completed;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s: depth=%d max=%d submitted=%d completed=%d cancelled=%d",
+                    lane, queueDepth, maxQueueDepth, submitted, completed, cancelled);
+        }
+    }
+
+    // The most recently created scheduler, whose lane stats MetricsActivity shows
+    private static volatile TaskScheduler current;
+
+    private final LaneExecutor[] lanes;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public TaskScheduler() {
+        lanes = new LaneExecutor[Lane.values().length];
+        for (Lane lane : Lane.values()) {
+            lanes[lane.ordinal()] = new LaneExecutor(lane);
+        }
+        current = this;
+    }
+
+    public static TaskScheduler current() {
+        return current;
+    }
+
+    // onCancel runs if the task is cancelled or dropped before it finishes, e.g. by cancelAll() or
+    // because the lane has shut down, so callers waiting on a result of their own can release it
+    public Future<?> submit(Lane lane, Priority priority, Runnable task, Runnable onCancel) {
+        LaneExecutor executor = lanes[lane.ordinal()];
+        PrioritizedTask prioritized = new PrioritizedTask(executor, priority, sequence.getAndIncrement(), task, onCancel);
+        executor.submitted.incrementAndGet();
+        executor.execute(prioritized);
+        executor.recordDepth();
+        return prioritized;
+    }
+
+    public Future<?> submit(Lane lane, Priority priority, Runnable task) {
+        return submit(lane, priority, task, null);
+    }
+
+    public Future<?> submit(Lane lane, Runnable task) {
+        return submit(lane, Priority.NORMAL, task);
+    }
+
+    // Drops everything still queued on the lane and interrupts the running task
+    public void cancelAll(Lane lane) {
+        LaneExecutor executor = lanes[lane.ordinal()];
+        Runnable queued;
+        while ((queued = executor.getQueue().poll()) != null) {
+            ((PrioritizedTask) queued).cancel(true);
+        }
+        PrioritizedTask running = executor.running;
+        if (running != null) {
+            running.cancel(true);
+        }
+    }
+
+    public LaneStats getStats(Lane lane) {
+        LaneExecutor executor = lanes[lane.ordinal()];
+        return new LaneStats(lane, executor.getQueue().size(), executor.maxDepth.get(),
+                executor.submitted.get(), executor.completed.get(), executor.cancelled.get());
+    }
+
+    public void shutdown() {
+        for (Lane lane : Lane.values()) {
+            if (lane == Lane.PREFETCH) {
+                cancelAll(lane);
+            }
+            lanes[lane.ordinal()].shutdown();
+        }
+    }
+
+    private static class LaneExecutor extends ThreadPoolExecutor {
+        final AtomicLong submitted = new AtomicLong();
+        final AtomicLong completed = new AtomicLong();
+        final AtomicLong cancelled = new AtomicLong();
+        final AtomicInteger maxDepth = new AtomicInteger();
+        volatile PrioritizedTask running;
+
+        LaneExecutor(Lane lane) {
+            super(1, 1, 0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "StudyBuddy-" + lane.name().toLowerCase(Locale.US));
+                thread.setPriority(lane.threadPriority);
+                return thread;
+            });
+        }
+
+        void recordDepth() {
+            int depth = getQueue().size();
+            int max;
+            while (depth > (max = maxDepth.get()) && !maxDepth.compareAndSet(max, depth)) {
+                // retry
+            }
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            try {
+                super.execute(command);
+            } catch (RejectedExecutionException e) {
+                // Lane already shut down (view model cleared); drop the task like a cancelled one
+                ((PrioritizedTask) command).cancel(false);
+            }
+        }
+
+        @Override
+        protected void beforeExecute(Thread thread, Runnable runnable) {
+            running = (PrioritizedTask) runnable;
+        }
+
+        @Override
+        protected void afterExecute(Runnable runnable, Throwable throwable) {
+            running = null;
+            completed.incrementAndGet();
+        }
+    }
+
+    private static class PrioritizedTask extends FutureTask<Void> implements Comparable<PrioritizedTask> {
+        private final LaneExecutor executor;
+        private final Priority priority;
+        private final long sequence;
+        private final Runnable onCancel;
+
+        PrioritizedTask(LaneExecutor executor, Priority priority, long sequence, Runnable task, Runnable onCancel) {
+            super(task, null);
+            this.executor = executor;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.onCancel = onCancel;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                executor.cancelled.incrementAndGet();
+                executor.remove(this);
+            }
+            return cancelled;
+        }
+
+        @Override
+        protected void done() {
+            if (onCancel != null && isCancelled()) {
+                onCancel.run();
+            }
+        }
+
+        @Override
+        public int compareTo(PrioritizedTask other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
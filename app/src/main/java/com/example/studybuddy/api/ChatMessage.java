@@ -4,6 +4,12 @@ public class ChatMessage {
     public String role;
     public String content;
     public String[] options;
+    // Set on in-progress assistant messages that are still receiving streamed text
+    public transient boolean streaming;
+    // Assigned by MessageLog; stable for the life of the message, including streamed updates
+    public transient long id;
+    // Set once one of the options has been picked, so a rebind keeps the buttons disabled
+    public transient boolean answered;
     
     public ChatMessage(String role, String content) {
         this.role = role;
@@ -1,13 +1,21 @@
 package com.example.studybuddy.api;
 
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
 import okhttp3.OkHttpClient;
-import okhttp3.logging.HttpLoggingInterceptor;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 import retrofit2.http.Body;
 import retrofit2.http.POST;
+import retrofit2.http.Streaming;
 
 public interface GroqApiService {
     String BASE_URL = "https://api.groq.com/";
@@ -16,13 +24,50 @@ public interface GroqApiService {
     retrofit2.Call<GroqChatResponse> chatCompletion(
         @Body GroqChatRequest request
     );
+
+    // Server-sent events; the request must have stream = true. Read with GroqStreamReader.
+    @Streaming
+    @POST("openai/v1/chat/completions")
+    retrofit2.Call<ResponseBody> chatCompletionStream(
+        @Body GroqChatRequest request
+    );
     
+    // One OkHttpClient per process: every caller shares its connection pool, TLS session cache
+    // and dispatcher, so requests after the first reuse the HTTP/2 connection to api.groq.com
     class Factory {
-        public static GroqApiService create(String apiKey) {
-            HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor();
-            loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
-            
-            OkHttpClient client = new OkHttpClient.Builder()
+        // Keep idle connections long enough to span the user's think time between questions
+        private static final ConnectionPool CONNECTION_POOL = new ConnectionPool(4, 5, TimeUnit.MINUTES);
+        private static final GroqDiagnostics DIAGNOSTICS = new GroqDiagnostics();
+        private static final GroqMetrics METRICS = new GroqMetrics();
+
+        // Rate limits and breaker state are per account, so callers share one executor too
+        private static volatile GroqCallExecutor callExecutor = new GroqCallExecutor();
+        // api.groq.com unless a test points the app at a local stand-in (see setBaseUrl)
+        private static String baseUrl = BASE_URL;
+
+        private static OkHttpClient baseClient;
+        private static GroqApiService service;
+        private static String serviceApiKey;
+
+        public static synchronized OkHttpClient baseClient() {
+            if (baseClient == null) {
+                baseClient = new OkHttpClient.Builder()
+                    .connectionPool(CONNECTION_POOL)
+                    .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                    .connectTimeout(30, TimeUnit.SECONDS)
+                    .readTimeout(30, TimeUnit.SECONDS)
+                    .build();
+            }
+            return baseClient;
+        }
+
+        public static synchronized GroqApiService create(String apiKey) {
+            if (service != null && apiKey.equals(serviceApiKey)) {
+                return service;
+            }
+
+            // newBuilder() shares the pool and dispatcher with baseClient()
+            OkHttpClient client = baseClient().newBuilder()
                 .addInterceptor(chain -> {
                     okhttp3.Request original = chain.request();
                     okhttp3.Request.Builder requestBuilder = original.newBuilder()
@@ -31,19 +76,69 @@ public interface GroqApiService {
                     okhttp3.Request request = requestBuilder.build();
                     return chain.proceed(request);
                 })
-                .addInterceptor(loggingInterceptor)
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(30, TimeUnit.SECONDS)
+                // After the auth interceptor so it sees (and redacts) the final headers
+                .addInterceptor(DIAGNOSTICS)
+                // Innermost, so time-to-first-byte doesn't include diagnostics logging
+                .addInterceptor(METRICS)
                 .build();
             
             Retrofit retrofit = new Retrofit.Builder()
-                .baseUrl(BASE_URL)
+                .baseUrl(baseUrl)
                 .client(client)
                 .addConverterFactory(GsonConverterFactory.create())
                 .build();
             
-            return retrofit.create(GroqApiService.class);
+            service = retrofit.create(GroqApiService.class);
+            serviceApiKey = apiKey;
+            return service;
+        }
+
+        // Sends every Groq call to url instead, e.g. a MockWebServer replaying recorded completions.
+        // Services created before this keep their old URL; create() builds a new one.
+        public static synchronized void setBaseUrl(String url) {
+            baseUrl = url;
+            service = null;
+        }
+
+        public static synchronized String baseUrl() {
+            return baseUrl;
+        }
+
+        // Takes effect for ReviewerServices created afterwards, e.g. one with test-sized limits
+        public static void setCallExecutor(GroqCallExecutor executor) {
+            callExecutor = executor;
+        }
+
+        public static GroqDiagnostics diagnostics() {
+            return DIAGNOSTICS;
+        }
+
+        public static GroqCallExecutor callExecutor() {
+            return callExecutor;
+        }
+
+        public static GroqMetrics metrics() {
+            return METRICS;
+        }
+
+        // Opens the pooled connection (DNS, TCP, TLS, ALPN) ahead of the first completion.
+        // The response itself is irrelevant; an unauthenticated HEAD is enough to set up the connection.
+        public static void prewarm() {
+            okhttp3.Request request = new okhttp3.Request.Builder()
+                .url(baseUrl())
+                .head()
+                .build();
+            baseClient().newCall(request).enqueue(new Callback() {
+                @Override
+                public void onResponse(Call call, Response response) {
+                    response.close();
+                }
+
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    android.util.Log.d("GroqApiService", "Prewarm failed: " + e.getMessage());
+                }
+            });
         }
     }
 }
-
@@ -0,0 +1,309 @@
+package com.example.studybuddy.api;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Headers;
+import retrofit2.Call;
+import retrofit2.Response;
+
+// Runs Groq calls with retries, client-side rate limiting and a circuit breaker.
+// - 429/5xx and network timeouts are retried with exponential backoff and full jitter; a
+//   Retry-After or x-ratelimit-reset-* header from Groq overrides the computed delay.
+// - Token buckets sized to the account's RPM/TPM limits delay calls that would be rejected anyway,
+//   and are pulled down to the remaining counts Groq reports.
+// - After FAILURE_THRESHOLD consecutive failed calls the breaker opens and calls fail fast with
+//   CircuitOpenException for OPEN_MS, so callers can fall back (e.g. to the question bank). Then
+//   a single trial call is let through (half-open): success closes the breaker, failure reopens it.
+public class GroqCallExecutor {
+    private static final String TAG = "GroqCallExecutor";
+
+    public static final int REQUESTS_PER_MINUTE = 30;
+    public static final int TOKENS_PER_MINUTE = 12000;
+
+    static final int MAX_ATTEMPTS = 3;
+    static final long BASE_DELAY_MS = 500;
+    static final long MAX_DELAY_MS = 8000;
+    // Longer server-requested waits aren't worth blocking the user for; give up instead
+    static final long MAX_RETRY_AFTER_MS = 20000;
+    static final long MAX_THROTTLE_WAIT_MS = 30000;
+    static final int FAILURE_THRESHOLD = 3;
+    static final long OPEN_MS = 30000;
+
+    public static class CircuitOpenException extends IOException {
+        CircuitOpenException() {
+            super("Groq is temporarily unavailable. Please try again in a moment.");
+        }
+    }
+
+    private final TokenBucket requestBucket;
+    private final TokenBucket tokenBucket;
+    private final int tokensPerMinute;
+    private final long baseDelayMs;
+    private final long openMs;
+
+    private int consecutiveFailures = 0;
+    private long openUntil = 0;
+    private boolean trialInFlight = false;
+
+    public GroqCallExecutor() {
+        this(BASE_DELAY_MS);
+    }
+
+    GroqCallExecutor(long baseDelayMs) {
+        this(baseDelayMs, REQUESTS_PER_MINUTE, TOKENS_PER_MINUTE);
+    }
+
+    // Other limits, e.g. for throughput tests against a local server
+    public GroqCallExecutor(long baseDelayMs, int requestsPerMinute, int tokensPerMinute) {
+        this(baseDelayMs, requestsPerMinute, tokensPerMinute, OPEN_MS);
+    }
+
+    // A shorter open period lets tests reach half-open without waiting OPEN_MS
+    GroqCallExecutor(long baseDelayMs, int requestsPerMinute, int tokensPerMinute, long openMs) {
+        this.baseDelayMs = baseDelayMs;
+        this.openMs = openMs;
+        this.requestBucket = new TokenBucket(requestsPerMinute);
+        this.tokenBucket = new TokenBucket(tokensPerMinute);
+        this.tokensPerMinute = tokensPerMinute;
+    }
+
+    public synchronized boolean isOpen() {
+        return System.currentTimeMillis() < openUntil || trialInFlight;
+    }
+
+    // Executes the call, retrying transient failures. A non-2xx response is returned as-is once retries
+    // run out or the status isn't retryable. estimatedTokens counts prompt plus completion tokens.
+    public <T> Response<T> execute(Call<T> call, int estimatedTokens) throws IOException {
+        acquirePermit();
+        boolean succeeded = false;
+        boolean cancelled = false;
+        try {
+            Response<T> response = null;
+            IOException lastError = null;
+            for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+                throttle(estimatedTokens);
+                Call<T> attemptCall = attempt == 0 ? call : call.clone();
+                try {
+                    response = attemptCall.execute();
+                    lastError = null;
+                } catch (InterruptedIOException e) {
+                    // Either a cancelled task or a socket timeout; only the latter is worth retrying
+                    cancelled = Thread.currentThread().isInterrupted();
+                    if (cancelled || attempt == MAX_ATTEMPTS - 1) {
+                        throw e;
+                    }
+                    lastError = e;
+                } catch (IOException e) {
+                    cancelled = attemptCall.isCanceled();
+                    if (cancelled || attempt == MAX_ATTEMPTS - 1) {
+                        throw e;
+                    }
+                    lastError = e;
+                }
+
+                if (response != null) {
+                    syncWithServer(response.headers());
+                    if (response.isSuccessful()) {
+                        succeeded = true;
+                        return response;
+                    }
+                    if (!isRetryable(response.code()) || attempt == MAX_ATTEMPTS - 1) {
+                        // 4xx other than 429 is our fault, not an outage
+                        succeeded = response.code() < 500 && response.code() != 429;
+                        return response;
+                    }
+                }
+
+                long delay = response != null ? serverDelayMs(response.code(), response.headers()) : -1;
+                if (delay > MAX_RETRY_AFTER_MS) {
+                    return response;
+                }
+                if (delay < 0) {
+                    delay = backoffMs(attempt);
+                }
+                android.util.Log.w(TAG, "Retrying Groq call in " + delay + "ms ("
+                        + (response != null ? "HTTP " + response.code() : lastError.getClass().getSimpleName()) + ")");
+                if (response != null && response.errorBody() != null) {
+                    response.errorBody().close();
+                }
+                response = null;
+                sleep(delay);
+            }
+            throw lastError != null ? lastError : new IOException("Groq call failed");
+        } finally {
+            // sleep() restores the interrupt flag, so waits cut short by cancellation show up here too
+            recordOutcome(succeeded, cancelled || Thread.currentThread().isInterrupted());
+        }
+    }
+
+    // Rough size of a request for the TPM bucket: the prompt estimate plus the completion budget
+    public static int estimateTokens(GroqChatRequest request) {
+        return PromptBudget.estimateTokens(request.messages) + request.maxTokens;
+    }
+
+    private synchronized void acquirePermit() throws CircuitOpenException {
+        long now = System.currentTimeMillis();
+        if (now < openUntil) {
+            throw new CircuitOpenException();
+        }
+        if (openUntil != 0) {
+            // Half-open: let a single trial call through
+            if (trialInFlight) {
+                throw new CircuitOpenException();
+            }
+            trialInFlight = true;
+        }
+    }
+
+    // A cancelled call says nothing about Groq's health and is not counted
+    private synchronized void recordOutcome(boolean succeeded, boolean cancelled) {
+        boolean wasTrial = trialInFlight;
+        trialInFlight = false;
+        if (cancelled) {
+            return;
+        }
+        if (succeeded) {
+            consecutiveFailures = 0;
+            openUntil = 0;
+            return;
+        }
+        consecutiveFailures++;
+        if (wasTrial || consecutiveFailures >= FAILURE_THRESHOLD) {
+            openUntil = System.currentTimeMillis() + openMs;
+            android.util.Log.w(TAG, "Circuit open for " + openMs + "ms after " + consecutiveFailures + " failures");
+        }
+    }
+
+    private void throttle(int estimatedTokens) throws InterruptedIOException {
+        long wait = Math.max(requestBucket.reserve(1), tokenBucket.reserve(Math.min(estimatedTokens, tokensPerMinute)));
+        if (wait > MAX_THROTTLE_WAIT_MS) {
+            wait = MAX_THROTTLE_WAIT_MS;
+        }
+        if (wait > 0) {
+            android.util.Log.d(TAG, "Throttling Groq call for " + wait + "ms");
+            sleep(wait);
+        }
+    }
+
+    private void syncWithServer(Headers headers) {
+        long remainingRequests = parseLong(headers.get("x-ratelimit-remaining-requests"));
+        if (remainingRequests >= 0) {
+            requestBucket.capAt(remainingRequests);
+        }
+        long remainingTokens = parseLong(headers.get("x-ratelimit-remaining-tokens"));
+        if (remainingTokens >= 0) {
+            tokenBucket.capAt(remainingTokens);
+        }
+    }
+
+    private static boolean isRetryable(int code) {
+        return code == 429 || code == 500 || code == 502 || code == 503 || code == 504;
+    }
+
+    // Retry-After (seconds) if present; for a 429, otherwise the later of Groq's x-ratelimit-reset-*
+    // durations. -1 when the server gave no hint.
+    static long serverDelayMs(int code, Headers headers) {
+        long retryAfter = parseLong(headers.get("retry-after"));
+        if (retryAfter >= 0) {
+            return TimeUnit.SECONDS.toMillis(retryAfter);
+        }
+        if (code != 429) {
+            return -1;
+        }
+        return Math.max(parseDuration(headers.get("x-ratelimit-reset-requests")),
+                parseDuration(headers.get("x-ratelimit-reset-tokens")));
+    }
+
+    // Groq reports resets as Go durations, e.g. "2m59.56s", "7.66s" or "120ms"
+    static long parseDuration(String value) {
+        if (value == null || value.isEmpty()) {
+            return -1;
+        }
+        double totalMs = 0;
+        int i = 0;
+        try {
+            while (i < value.length()) {
+                int start = i;
+                while (i < value.length() && (Character.isDigit(value.charAt(i)) || value.charAt(i) == '.')) {
+                    i++;
+                }
+                double amount = Double.parseDouble(value.substring(start, i));
+                int unitStart = i;
+                while (i < value.length() && Character.isLetter(value.charAt(i))) {
+                    i++;
+                }
+                switch (value.substring(unitStart, i)) {
+                    case "h": totalMs += amount * 3600000; break;
+                    case "m": totalMs += amount * 60000; break;
+                    case "s": totalMs += amount * 1000; break;
+                    case "ms": totalMs += amount; break;
+                    default: return -1;
+                }
+            }
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        return (long) Math.ceil(totalMs);
+    }
+
+    private long backoffMs(int attempt) {
+        long cap = Math.min(MAX_DELAY_MS, baseDelayMs << attempt);
+        return ThreadLocalRandom.current().nextLong(cap / 2, cap + 1);
+    }
+
+    private static long parseLong(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void sleep(long ms) throws InterruptedIOException {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry");
+        }
+    }
+
+    // Refills continuously at capacity per minute; reserve() takes tokens now and returns how long
+    // the caller must wait for the balance to be non-negative
+    static class TokenBucket {
+        private final long capacity;
+        private double available;
+        private long lastRefill;
+
+        TokenBucket(long capacityPerMinute) {
+            this.capacity = capacityPerMinute;
+            this.available = capacityPerMinute;
+            this.lastRefill = System.nanoTime();
+        }
+
+        synchronized long reserve(long amount) {
+            refill();
+            available -= amount;
+            if (available >= 0) {
+                return 0;
+            }
+            return (long) Math.ceil(-available * 60000.0 / capacity);
+        }
+
+        synchronized void capAt(long remaining) {
+            refill();
+            available = Math.min(available, remaining);
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            available = Math.min(capacity, available + (now - lastRefill) / 60e9 * capacity);
+            lastRefill = now;
+        }
+    }
+}
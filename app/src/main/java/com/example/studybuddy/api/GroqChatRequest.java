@@ -10,6 +10,8 @@ public class GroqChatRequest {
     public double temperature = 0.7;
     @SerializedName("max_tokens")
     public int maxTokens = 1024;
+    // Left null for regular calls so the field is omitted from the request body
+    public Boolean stream;
     
     public GroqChatRequest(List<ChatMessage> messages) {
         this.messages = messages;
@@ -5,4 +5,5 @@ import java.util.List;
 public class GroqChatResponse {
     public String id;
     public List<Choice> choices;
+    public Usage usage;
 }
@@ -0,0 +1,133 @@
+package com.example.studybuddy.api;
+
+import com.example.studybuddy.BuildConfig;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.Headers;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+// HTTP diagnostics for Groq calls, replacing HttpLoggingInterceptor at BODY level.
+//   OFF     - passes requests straight through (release default)
+//   SAMPLED - one line plus redacted headers for every SAMPLE_EVERY-th request, never bodies (debug default)
+//   DEBUG   - every request, plus up to DEBUG_BODY_LIMIT bytes of non-streaming response bodies
+// Debug mode can be switched on for a release build with: adb shell setprop log.tag.GroqDiagnostics VERBOSE
+public class GroqDiagnostics implements Interceptor {
+    private static final String TAG = "GroqDiagnostics";
+
+    public enum Mode {
+        OFF,
+        SAMPLED,
+        DEBUG
+    }
+
+    static final int SAMPLE_EVERY = 20;
+    static final long DEBUG_BODY_LIMIT = 16 * 1024;
+
+    private static volatile Mode mode = defaultMode();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong loggedRequests = new AtomicLong();
+    // Time spent in this interceptor outside chain.proceed(), i.e. the cost of diagnostics itself
+    private final AtomicLong overheadNanos = new AtomicLong();
+
+    public static Mode getMode() {
+        return mode;
+    }
+
+    public static void setMode(Mode newMode) {
+        mode = newMode;
+    }
+
+    public static boolean isDebug() {
+        return mode == Mode.DEBUG;
+    }
+
+    private static Mode defaultMode() {
+        if (android.util.Log.isLoggable(TAG, android.util.Log.VERBOSE)) {
+            return Mode.DEBUG;
+        }
+        try {
+            return Mode.valueOf(BuildConfig.GROQ_DIAGNOSTICS);
+        } catch (IllegalArgumentException e) {
+            return Mode.OFF;
+        }
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Mode current = mode;
+        long count = requests.incrementAndGet();
+        if (current == Mode.OFF || (current == Mode.SAMPLED && count % SAMPLE_EVERY != 0)) {
+            return chain.proceed(chain.request());
+        }
+
+        Request request = chain.request();
+        long started = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            android.util.Log.w(TAG, request.method() + " " + request.url().encodedPath() + " failed: " + e.getMessage());
+            throw e;
+        }
+        long tookMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        long logStarted = System.nanoTime();
+        StringBuilder line = new StringBuilder()
+                .append(request.method()).append(' ').append(request.url().encodedPath())
+                .append(" -> ").append(response.code())
+                .append(' ').append(response.protocol())
+                .append(' ').append(tookMs).append("ms");
+        if (request.body() != null) {
+            line.append(" req=").append(request.body().contentLength()).append('B');
+        }
+        line.append('\n');
+        appendHeaders(line, "> ", request.headers());
+        appendHeaders(line, "< ", response.headers());
+        if (current == Mode.DEBUG && !isStreaming(response)) {
+            ResponseBody peeked = response.peekBody(DEBUG_BODY_LIMIT);
+            line.append(peeked.string());
+        }
+        android.util.Log.d(TAG, line.toString());
+
+        loggedRequests.incrementAndGet();
+        overheadNanos.addAndGet(System.nanoTime() - logStarted);
+        return response;
+    }
+
+    // Per-logged-request cost; with mode OFF nothing is logged and the cost is a volatile read
+    public String overheadSummary() {
+        long logged = loggedRequests.get();
+        double averageUs = logged > 0 ? overheadNanos.get() / 1000.0 / logged : 0;
+        return String.format(Locale.US, "%s: %d requests, %d logged, %.1fus avg logging overhead",
+                mode, requests.get(), logged, averageUs);
+    }
+
+    private static void appendHeaders(StringBuilder line, String prefix, Headers headers) {
+        for (int i = 0; i < headers.size(); i++) {
+            String name = headers.name(i);
+            line.append(prefix).append(name).append(": ")
+                    .append(isSensitive(name) ? "<redacted>" : headers.value(i))
+                    .append('\n');
+        }
+    }
+
+    private static boolean isSensitive(String header) {
+        return "Authorization".equalsIgnoreCase(header)
+                || "Cookie".equalsIgnoreCase(header)
+                || "Set-Cookie".equalsIgnoreCase(header);
+    }
+
+    // Peeking an SSE body would wait for the whole stream and stall token-by-token rendering
+    private static boolean isStreaming(Response response) {
+        ResponseBody body = response.body();
+        MediaType type = body != null ? body.contentType() : null;
+        return type != null && "event-stream".equals(type.subtype());
+    }
+}
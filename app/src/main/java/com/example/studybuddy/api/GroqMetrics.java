@@ -0,0 +1,261 @@
+package com.example.studybuddy.api;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+// Per call type latency and token metrics for Groq calls. Callers wrap each call in start()/finish();
+// as an interceptor this also sees every attempt the call makes, which gives time-to-first-byte
+// (chain.proceed() returns once response headers arrive) and the retry count.
+// Recording is a handful of atomic increments into fixed-size histograms, so it stays on in release builds.
+public class GroqMetrics implements Interceptor {
+
+    public enum CallType {
+        GENERATE,
+        CHECK,
+        SUMMARY,
+        WEAK_TOPIC,
+        FREE_CHAT
+    }
+
+    // Calls are executed synchronously, so the interceptor runs on the thread that started the timing
+    private static final ThreadLocal<Timing> CURRENT = new ThreadLocal<>();
+
+    private final Stats[] stats = new Stats[CallType.values().length];
+
+    public GroqMetrics() {
+        for (CallType type : CallType.values()) {
+            stats[type.ordinal()] = new Stats();
+        }
+    }
+
+    public Timing start(CallType type) {
+        Timing timing = new Timing(stats[type.ordinal()]);
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    public void recordParseFailure(CallType type) {
+        stats[type.ordinal()].parseFailures.incrementAndGet();
+    }
+
+    public Stats get(CallType type) {
+        return stats[type.ordinal()];
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Timing timing = CURRENT.get();
+        if (timing == null) {
+            return chain.proceed(chain.request());
+        }
+        timing.attempts++;
+        long started = System.nanoTime();
+        Response response = chain.proceed(chain.request());
+        timing.ttfbNanos = System.nanoTime() - started;
+        return response;
+    }
+
+    public String toJson() {
+        JsonObject root = new JsonObject();
+        for (CallType type : CallType.values()) {
+            root.add(type.name().toLowerCase(Locale.US), stats[type.ordinal()].toJson());
+        }
+        return new GsonBuilder().setPrettyPrinting().create().toJson(root);
+    }
+
+    public String summary() {
+        StringBuilder builder = new StringBuilder();
+        for (CallType type : CallType.values()) {
+            Stats s = stats[type.ordinal()];
+            builder.append(type).append('\n');
+            builder.append(String.format(Locale.US,
+                    "  calls=%d failures=%d retries=%d parseFailures=%d%n",
+                    s.latencyMs.count(), s.failures.get(), s.retries.get(), s.parseFailures.get()));
+            builder.append("  latency ms   ").append(s.latencyMs).append('\n');
+            builder.append("  ttfb ms      ").append(s.ttfbMs).append('\n');
+            builder.append("  prompt tok   ").append(s.promptTokens).append('\n');
+            builder.append("  complete tok ").append(s.completionTokens).append('\n');
+        }
+        return builder.toString();
+    }
+
+    public void reset() {
+        for (Stats s : stats) {
+            s.reset();
+        }
+    }
+
+    // One call from the caller's point of view, including retries and, for streams, reading the body
+    public static class Timing {
+        private final Stats stats;
+        private final long startedNanos = System.nanoTime();
+        int attempts;
+        long ttfbNanos = -1;
+
+        Timing(Stats stats) {
+            this.stats = stats;
+        }
+
+        // usage may be null (failed call, or a stream that ended before the usage chunk)
+        public void finish(boolean succeeded, Usage usage) {
+            if (CURRENT.get() == this) {
+                CURRENT.remove();
+            }
+            stats.latencyMs.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos));
+            if (ttfbNanos >= 0) {
+                stats.ttfbMs.record(TimeUnit.NANOSECONDS.toMillis(ttfbNanos));
+            }
+            if (attempts > 1) {
+                stats.retries.addAndGet(attempts - 1);
+            }
+            if (!succeeded) {
+                stats.failures.incrementAndGet();
+            }
+            if (usage != null) {
+                stats.promptTokens.record(usage.promptTokens);
+                stats.completionTokens.record(usage.completionTokens);
+            }
+        }
+    }
+
+    public static class Stats {
+        public final Histogram latencyMs = new Histogram();
+        public final Histogram ttfbMs = new Histogram();
+        public final Histogram promptTokens = new Histogram();
+        public final Histogram completionTokens = new Histogram();
+        public final AtomicLong failures = new AtomicLong();
+        public final AtomicLong retries = new AtomicLong();
+        public final AtomicLong parseFailures = new AtomicLong();
+
+        JsonObject toJson() {
+            JsonObject json = new JsonObject();
+            json.addProperty("calls", latencyMs.count());
+            json.addProperty("failures", failures.get());
+            json.addProperty("retries", retries.get());
+            json.addProperty("parseFailures", parseFailures.get());
+            json.add("latencyMs", latencyMs.toJson());
+            json.add("ttfbMs", ttfbMs.toJson());
+            json.add("promptTokens", promptTokens.toJson());
+            json.add("completionTokens", completionTokens.toJson());
+            return json;
+        }
+
+        void reset() {
+            latencyMs.reset();
+            ttfbMs.reset();
+            promptTokens.reset();
+            completionTokens.reset();
+            failures.set(0);
+            retries.set(0);
+            parseFailures.set(0);
+        }
+    }
+
+    // Log-linear histogram of non-negative values: exact below 4, then four buckets per power of two,
+    // so any reported percentile is within 25% of the true value. 128 buckets cover up to 2^33.
+    public static class Histogram {
+        static final int BUCKETS = 128;
+        private static final int SUB_BUCKET_BITS = 2;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong sum = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+
+        public void record(long value) {
+            if (value < 0) {
+                value = 0;
+            }
+            counts.incrementAndGet(bucketFor(value));
+            count.incrementAndGet();
+            sum.addAndGet(value);
+            long current;
+            while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+                // retry
+            }
+        }
+
+        public long count() {
+            return count.get();
+        }
+
+        public double mean() {
+            long n = count.get();
+            return n > 0 ? (double) sum.get() / n : 0;
+        }
+
+        public long max() {
+            return max.get();
+        }
+
+        // Upper bound of the bucket holding the p-th percentile (0-100), capped at the recorded max
+        public long percentile(double p) {
+            long n = count.get();
+            if (n == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(p / 100.0 * n));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts.get(i);
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), max.get());
+                }
+            }
+            return max.get();
+        }
+
+        static int bucketFor(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int octave = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> (octave - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return Math.min(BUCKETS - 1, (octave - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub);
+        }
+
+        static long upperBound(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int octave = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+            int sub = bucket % SUB_BUCKETS;
+            long width = 1L << (octave - SUB_BUCKET_BITS);
+            return ((long) (SUB_BUCKETS + sub) << (octave - SUB_BUCKET_BITS)) + width - 1;
+        }
+
+        JsonObject toJson() {
+            JsonObject json = new JsonObject();
+            json.addProperty("count", count());
+            json.addProperty("mean", Math.round(mean()));
+            json.addProperty("p50", percentile(50));
+            json.addProperty("p90", percentile(90));
+            json.addProperty("p99", percentile(99));
+            json.addProperty("max", max());
+            return json;
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts.set(i, 0);
+            }
+            count.set(0);
+            sum.set(0);
+            max.set(0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "n=%d mean=%.0f p50=%d p90=%d p99=%d max=%d",
+                    count(), mean(), percentile(50), percentile(90), percentile(99), max());
+        }
+    }
+}
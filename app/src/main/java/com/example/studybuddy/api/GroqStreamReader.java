@@ -0,0 +1,93 @@
+package com.example.studybuddy.api;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+
+// Reads an OpenAI-style server-sent event stream ("data: {...}" lines ending with "data: [DONE]")
+public class GroqStreamReader {
+
+    private static final Gson GSON = new Gson();
+
+    public interface Listener {
+        void onDelta(String delta);
+
+        // Groq sends token usage once, on the last chunk (under x_groq)
+        default void onUsage(Usage usage) {
+        }
+    }
+
+    public static String read(ResponseBody body, Listener listener) throws IOException {
+        StringBuilder text = new StringBuilder();
+        BufferedSource source = body.source();
+        String line;
+        while ((line = source.readUtf8Line()) != null) {
+            if (!line.startsWith("data:")) {
+                continue;
+            }
+            String data = line.substring(5).trim();
+            if (data.isEmpty()) {
+                continue;
+            }
+            if ("[DONE]".equals(data)) {
+                break;
+            }
+            JsonObject chunk = parseChunk(data);
+            if (chunk == null) {
+                continue;
+            }
+            String delta = extractDelta(chunk);
+            if (delta != null && !delta.isEmpty()) {
+                text.append(delta);
+                if (listener != null) {
+                    listener.onDelta(delta);
+                }
+            }
+            Usage usage = extractUsage(chunk);
+            if (usage != null && listener != null) {
+                listener.onUsage(usage);
+            }
+        }
+        return text.toString();
+    }
+
+    private static JsonObject parseChunk(String data) {
+        try {
+            return JsonParser.parseString(data).getAsJsonObject();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String extractDelta(JsonObject chunk) {
+        try {
+            JsonArray choices = chunk.getAsJsonArray("choices");
+            if (choices == null || choices.size() == 0) {
+                return null;
+            }
+            JsonObject delta = choices.get(0).getAsJsonObject().getAsJsonObject("delta");
+            if (delta == null) {
+                return null;
+            }
+            JsonElement content = delta.get("content");
+            return content != null && !content.isJsonNull() ? content.getAsString() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    static Usage extractUsage(JsonObject chunk) {
+        try {
+            JsonObject holder = chunk.has("x_groq") ? chunk.getAsJsonObject("x_groq") : chunk;
+            JsonElement usage = holder.get("usage");
+            return usage != null && usage.isJsonObject() ? GSON.fromJson(usage, Usage.class) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.studybuddy.api;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Token estimates and per call type prompt budgets for Groq requests.
+// The estimate is ~4 characters per token plus a few tokens of chat framing per message, which
+// overestimates slightly for English text with the llama tokenizer; that is the safe side for a budget.
+public class PromptBudget {
+    static final int CHARS_PER_TOKEN = 4;
+    public static final int MESSAGE_OVERHEAD_TOKENS = 4;
+    // Turns dropped from the history are folded into a synopsis of at most this many tokens
+    public static final int SYNOPSIS_BUDGET = 256;
+    static final int SYNOPSIS_LINE_CHARS = 120;
+
+    public static int promptBudget(GroqMetrics.CallType type) {
+        switch (type) {
+            case FREE_CHAT:
+                return 2048;
+            case GENERATE:
+            case WEAK_TOPIC:
+                return 1024;
+            case CHECK:
+                return 768;
+            case SUMMARY:
+            default:
+                return 512;
+        }
+    }
+
+    public static int estimateTokens(String text) {
+        return text == null ? 0 : (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    public static int estimateTokens(ChatMessage message) {
+        return MESSAGE_OVERHEAD_TOKENS + estimateTokens(message.content);
+    }
+
+    public static int estimateTokens(List<ChatMessage> messages) {
+        int tokens = 0;
+        if (messages != null) {
+            for (ChatMessage message : messages) {
+                tokens += estimateTokens(message);
+            }
+        }
+        return tokens;
+    }
+
+    // Removes the oldest turns from history until it fits in historyBudget tokens, adding a one-line
+    // entry per removed turn to the synopsis. Returns the new synopsis (null if nothing was ever
+    // removed); once it outgrows SYNOPSIS_BUDGET its oldest lines are dropped. The newest turn is
+    // always kept, cut short if it doesn't fit on its own.
+    public static String compact(List<ChatMessage> history, String synopsis, int historyBudget) {
+        int tokens = estimateTokens(history);
+        if (tokens <= historyBudget) {
+            return synopsis;
+        }
+        if (history.size() == 1) {
+            truncateNewest(history, historyBudget);
+            return synopsis;
+        }
+        StringBuilder builder = new StringBuilder(synopsis != null ? synopsis : "");
+        while (history.size() > 1 && tokens > historyBudget) {
+            ChatMessage oldest = history.remove(0);
+            tokens -= estimateTokens(oldest);
+            builder.append(oldest.role).append(": ").append(synopsisLine(oldest.content)).append('\n');
+        }
+        if (tokens > historyBudget) {
+            truncateNewest(history, historyBudget);
+        }
+        while (estimateTokens(builder.toString()) > SYNOPSIS_BUDGET) {
+            int firstLineEnd = builder.indexOf("\n");
+            if (firstLineEnd < 0) {
+                break;
+            }
+            builder.delete(0, firstLineEnd + 1);
+        }
+        return builder.toString();
+    }
+
+    // The newest items (from the end of the list) whose combined estimate fits in budget, oldest first
+    public static List<String> newestWithin(List<String> items, int budget) {
+        int start = items.size();
+        int tokens = 0;
+        while (start > 0) {
+            int cost = estimateTokens(items.get(start - 1)) + 1;
+            if (tokens + cost > budget) {
+                break;
+            }
+            tokens += cost;
+            start--;
+        }
+        return new ArrayList<>(items.subList(start, items.size()));
+    }
+
+    private static void truncateNewest(List<ChatMessage> history, int historyBudget) {
+        ChatMessage newest = history.get(history.size() - 1);
+        int maxChars = Math.max(0, historyBudget - MESSAGE_OVERHEAD_TOKENS) * CHARS_PER_TOKEN;
+        String content = newest.content;
+        if (content != null && content.length() > maxChars) {
+            content = maxChars > 3 ? content.substring(0, maxChars - 3) + "..." : content.substring(0, maxChars);
+            history.set(history.size() - 1, new ChatMessage(newest.role, content));
+        }
+    }
+
+    private static String synopsisLine(String content) {
+        if (content == null) {
+            return "";
+        }
+        // Trimmed, then whitespace runs collapse to one space (what replaceAll("\\s+", " ").trim() did,
+        // without the regex)
+        int start = 0;
+        int end = content.length();
+        while (start < end && content.charAt(start) <= ' ') start++;
+        while (end > start && content.charAt(end - 1) <= ' ') end--;
+        StringBuilder line = new StringBuilder(Math.min(end - start, SYNOPSIS_LINE_CHARS + 1));
+        boolean inWhitespace = false;
+        for (int i = start; i < end && line.length() <= SYNOPSIS_LINE_CHARS; i++) {
+            char c = content.charAt(i);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r') {
+                if (!inWhitespace) {
+                    line.append(' ');
+                    inWhitespace = true;
+                }
+            } else {
+                line.append(c);
+                inWhitespace = false;
+            }
+        }
+        if (line.length() <= SYNOPSIS_LINE_CHARS) {
+            return line.toString();
+        }
+        line.setLength(SYNOPSIS_LINE_CHARS - 3);
+        return line.append("...").toString();
+    }
+}
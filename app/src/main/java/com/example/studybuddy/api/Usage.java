@@ -1 +1,12 @@
 package com.example.studybuddy.api;
+
+import com.google.gson.annotations.SerializedName;
+
+public class Usage {
+    @SerializedName("prompt_tokens")
+    public int promptTokens;
+    @SerializedName("completion_tokens")
+    public int completionTokens;
+    @SerializedName("total_tokens")
+    public int totalTokens;
+}
@@ -2,17 +2,225 @@ package com.example.studybuddy.data;
 
 import android.content.Context;
 import android.util.Log;
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.TypeConverters;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 
-@Database(entities = {QuizHistory.class}, version = 2, exportSchema = false)
+@Database(entities = {QuizHistory.class, CachedQuestion.class, CategoryStats.class,
+        TranscriptEntry.class, SessionSnapshot.class, SessionSummary.class}, version = 9, exportSchema = true)
+@TypeConverters(OptionsConverter.class)
 public abstract class AppDatabase extends RoomDatabase {
     private static final String TAG = "AppDatabase";
     public abstract QuizHistoryDao quizHistoryDao();
-    
+    public abstract QuestionBankDao questionBankDao();
+    public abstract CategoryStatsDao categoryStatsDao();
+    public abstract SessionStoreDao sessionStoreDao();
+
     private static volatile AppDatabase INSTANCE;
-    
+
+    // Adds the question bank without touching existing quiz history
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `generated_questions` (" +
+                    "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`subjectKey` TEXT, `subject` TEXT, `question` TEXT, `options` TEXT, " +
+                    "`answerIndex` INTEGER NOT NULL, `explanation` TEXT, " +
+                    "`createdAt` INTEGER NOT NULL, `lastUsedAt` INTEGER NOT NULL, `useCount` INTEGER NOT NULL)");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_generated_questions_subjectKey_question` " +
+                    "ON `generated_questions` (`subjectKey`, `question`)");
+        }
+    };
+
+    // Indices for the quiz_history hot queries (see QuizHistory)
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_quiz_history_category_isCorrect_lastReviewed` " +
+                    "ON `quiz_history` (`category`, `isCorrect`, `lastReviewed`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_quiz_history_category_lastReviewed` " +
+                    "ON `quiz_history` (`category`, `lastReviewed`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_quiz_history_sessionId_timestamp` " +
+                    "ON `quiz_history` (`sessionId`, `timestamp`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_quiz_history_timestamp` " +
+                    "ON `quiz_history` (`timestamp`)");
+        }
+    };
+
+    // Adds category_stats, its triggers, and backfills it from existing history
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_quiz_history_category_timestamp` " +
+                    "ON `quiz_history` (`category`, `timestamp`)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `category_stats` (" +
+                    "`category` TEXT NOT NULL, `total` INTEGER NOT NULL, `incorrect` INTEGER NOT NULL, " +
+                    "`recentTotal` INTEGER NOT NULL, `recentIncorrect` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`category`))");
+            db.execSQL("INSERT OR REPLACE INTO category_stats " +
+                    "(category, total, incorrect, recentTotal, recentIncorrect) " +
+                    "SELECT category, COUNT(*), SUM(CASE WHEN isCorrect = 0 THEN 1 ELSE 0 END), 0, 0 " +
+                    "FROM quiz_history WHERE category IS NOT NULL GROUP BY category");
+            db.execSQL("UPDATE category_stats SET " + recentWindow("category_stats.category"));
+            createCategoryStatsTriggers(db);
+        }
+    };
+
+    // Spaced-repetition columns. Existing answers are treated as having had their first review:
+    // wrong ones are due now, right ones a day after they were answered.
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `quiz_history` ADD COLUMN `easeFactor` REAL NOT NULL DEFAULT 2.5");
+            db.execSQL("ALTER TABLE `quiz_history` ADD COLUMN `intervalDays` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE `quiz_history` ADD COLUMN `dueAt` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("UPDATE `quiz_history` SET " +
+                    "intervalDays = CASE WHEN isCorrect = 1 THEN 1 ELSE 0 END, " +
+                    "dueAt = lastReviewed + CASE WHEN isCorrect = 1 THEN 86400000 ELSE 0 END");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_quiz_history_category_dueAt` " +
+                    "ON `quiz_history` (`category`, `dueAt`)");
+        }
+    };
+
+    // Adds the chat transcript and session snapshot used to resume a quiz after process death
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `chat_transcript` (" +
+                    "`id` INTEGER NOT NULL, `role` TEXT, `content` TEXT, `options` TEXT, " +
+                    "`createdAt` INTEGER NOT NULL, PRIMARY KEY(`id`))");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `session_snapshot` (" +
+                    "`id` INTEGER NOT NULL, `state` TEXT, `subject` TEXT, " +
+                    "`questionCount` INTEGER NOT NULL, `currentQuestionIndex` INTEGER NOT NULL, " +
+                    "`currentQuestion` TEXT, `currentOptions` TEXT, `currentAnswerIndex` INTEGER NOT NULL, " +
+                    "`currentExplanation` TEXT, `sessionId` TEXT, `askedQuestions` TEXT, `weakTopics` TEXT, " +
+                    "`weakQuestionsJson` TEXT, `conversationJson` TEXT, `historySynopsis` TEXT, " +
+                    "`updatedAt` INTEGER NOT NULL, PRIMARY KEY(`id`))");
+        }
+    };
+
+    // Lets the question bank's LRU trim walk an index instead of sorting the table
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_generated_questions_lastUsedAt` " +
+                    "ON `generated_questions` (`lastUsedAt`)");
+        }
+    };
+
+    // Adds session_summary, its triggers, and backfills it from existing history
+    static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `session_summary` (" +
+                    "`sessionId` TEXT NOT NULL, `category` TEXT, `timestamp` INTEGER NOT NULL, " +
+                    "`totalQuestions` INTEGER NOT NULL, `correctCount` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`sessionId`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_session_summary_timestamp_sessionId` " +
+                    "ON `session_summary` (`timestamp`, `sessionId`)");
+            db.execSQL("INSERT OR REPLACE INTO session_summary " + summarize("IS NOT NULL"));
+            createSessionSummaryTriggers(db);
+        }
+    };
+
+    static final Migration[] MIGRATIONS = {MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6, MIGRATION_6_7,
+            MIGRATION_7_8, MIGRATION_8_9};
+
+    // Room has no annotation for triggers, so they are created here for fresh installs and in
+    // MIGRATION_4_5 for upgrades. Each statement only touches the affected category's row, and the
+    // rolling window is recounted from the last RECENT_WINDOW answers via the (category, timestamp) index.
+    static void createCategoryStatsTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `category_stats_after_insert` " +
+                "AFTER INSERT ON quiz_history WHEN NEW.category IS NOT NULL BEGIN " +
+                addAnswer("NEW") +
+                "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `category_stats_after_delete` " +
+                "AFTER DELETE ON quiz_history WHEN OLD.category IS NOT NULL BEGIN " +
+                removeAnswer("OLD") +
+                "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `category_stats_after_update` " +
+                "AFTER UPDATE OF category, isCorrect ON quiz_history " +
+                "WHEN OLD.category IS NOT NEW.category OR OLD.isCorrect IS NOT NEW.isCorrect BEGIN " +
+                removeAnswer("OLD") +
+                addAnswer("NEW") +
+                "END");
+    }
+
+    private static String addAnswer(String row) {
+        return "INSERT OR IGNORE INTO category_stats (category, total, incorrect, recentTotal, recentIncorrect) " +
+                "VALUES (" + row + ".category, 0, 0, 0, 0); " +
+                "UPDATE category_stats SET total = total + 1, incorrect = incorrect + (" + row + ".isCorrect = 0), " +
+                recentWindow(row + ".category") + " WHERE category = " + row + ".category; ";
+    }
+
+    private static String removeAnswer(String row) {
+        return "UPDATE category_stats SET total = total - 1, incorrect = incorrect - (" + row + ".isCorrect = 0), " +
+                recentWindow(row + ".category") + " WHERE category = " + row + ".category; " +
+                "DELETE FROM category_stats WHERE category = " + row + ".category AND total <= 0; ";
+    }
+
+    private static String recentWindow(String category) {
+        String recent = "SELECT isCorrect FROM quiz_history WHERE category = " + category +
+                " ORDER BY timestamp DESC, id DESC LIMIT " + CategoryStats.RECENT_WINDOW;
+        return "recentTotal = (SELECT COUNT(*) FROM (" + recent + ")), " +
+                "recentIncorrect = (SELECT COUNT(*) FROM (" + recent + ") WHERE isCorrect = 0)";
+    }
+
+    // Inserts only bump the session's counters; deletes and edits recount the one affected
+    // session through the (sessionId, timestamp) index. SQLite takes the bare category column from
+    // the row that supplied MIN(timestamp), i.e. the first question of the session.
+    static void createSessionSummaryTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `session_summary_after_insert` " +
+                "AFTER INSERT ON quiz_history WHEN NEW.sessionId IS NOT NULL BEGIN " +
+                "INSERT OR IGNORE INTO session_summary (sessionId, category, timestamp, totalQuestions, correctCount) " +
+                "VALUES (NEW.sessionId, NEW.category, NEW.timestamp, 0, 0); " +
+                "UPDATE session_summary SET totalQuestions = totalQuestions + 1, " +
+                "correctCount = correctCount + (NEW.isCorrect = 1), " +
+                "category = CASE WHEN NEW.timestamp < timestamp THEN NEW.category ELSE category END, " +
+                "timestamp = MIN(timestamp, NEW.timestamp) WHERE sessionId = NEW.sessionId; " +
+                "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `session_summary_after_delete` " +
+                "AFTER DELETE ON quiz_history WHEN OLD.sessionId IS NOT NULL BEGIN " +
+                recountSession("OLD") +
+                "END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `session_summary_after_update` " +
+                "AFTER UPDATE OF sessionId, category, isCorrect, timestamp ON quiz_history " +
+                "WHEN OLD.sessionId IS NOT NEW.sessionId OR OLD.category IS NOT NEW.category " +
+                "OR OLD.isCorrect IS NOT NEW.isCorrect OR OLD.timestamp IS NOT NEW.timestamp BEGIN " +
+                recountSession("OLD") +
+                recountSession("NEW") +
+                "END");
+    }
+
+    private static String recountSession(String row) {
+        return "DELETE FROM session_summary WHERE sessionId = " + row + ".sessionId; " +
+                "INSERT INTO session_summary " + summarize("= " + row + ".sessionId") + "; ";
+    }
+
+    private static String summarize(String sessionFilter) {
+        return "(sessionId, category, timestamp, totalQuestions, correctCount) " +
+                "SELECT sessionId, category, MIN(timestamp), COUNT(*), SUM(isCorrect = 1) " +
+                "FROM quiz_history WHERE sessionId " + sessionFilter + " GROUP BY sessionId";
+    }
+
+    static final RoomDatabase.Callback CALLBACK = new RoomDatabase.Callback() {
+        @Override
+        public void onCreate(@NonNull SupportSQLiteDatabase db) {
+            createCategoryStatsTriggers(db);
+            createSessionSummaryTriggers(db);
+        }
+
+        @Override
+        public void onDestructiveMigration(@NonNull SupportSQLiteDatabase db) {
+            createCategoryStatsTriggers(db);
+            createSessionSummaryTriggers(db);
+        }
+    };
+
     public static AppDatabase getDatabase(final Context context) {
         if (INSTANCE == null) {
             synchronized (AppDatabase.class) {
@@ -23,7 +231,11 @@ public abstract class AppDatabase extends RoomDatabase {
                             AppDatabase.class,
                             "studybuddy_database"
                         )
-                        .fallbackToDestructiveMigration()
+                        .addMigrations(MIGRATIONS)
+                        // Version 1 predates quiz history, so there is nothing worth keeping.
+                        // Every later version must have a migration; never wipe user history.
+                        .fallbackToDestructiveMigrationFrom(1)
+                        .addCallback(CALLBACK)
                         .build();
                         Log.d(TAG, "Database initialized successfully");
                     } catch (Exception e) {
@@ -36,4 +248,3 @@ public abstract class AppDatabase extends RoomDatabase {
         return INSTANCE;
     }
 }
-
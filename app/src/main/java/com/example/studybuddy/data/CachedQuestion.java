@@ -0,0 +1,34 @@
+package com.example.studybuddy.data;
+
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+// (subjectKey, question) dedupes batches per subject; lastUsedAt serves QuestionBankDao.trimToSize
+@Entity(tableName = "generated_questions",
+        indices = {
+            @Index(value = {"subjectKey", "question"}, unique = true),
+            @Index(value = {"lastUsedAt"})
+        })
+public class CachedQuestion {
+    @PrimaryKey(autoGenerate = true)
+    public long id = 0;
+
+    // Normalized subject, see QuestionBank.normalizeSubject()
+    public String subjectKey;
+    public String subject;
+    public String question;
+    public String[] options;
+    public int answerIndex;
+    public String explanation;
+    public long createdAt;
+    public long lastUsedAt;
+    public int useCount;
+
+    public CachedQuestion() {
+        this.createdAt = System.currentTimeMillis();
+        this.lastUsedAt = this.createdAt;
+        this.answerIndex = -1;
+        this.useCount = 0;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.studybuddy.data;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+// Per-category answer counts, kept in sync with quiz_history by the triggers created in
+// AppDatabase, so weak-topic lookups never have to aggregate the whole history
+@Entity(tableName = "category_stats")
+public class CategoryStats {
+    // Number of most recent answers per category that make up the rolling window
+    public static final int RECENT_WINDOW = 20;
+
+    @PrimaryKey
+    @NonNull
+    public String category = "";
+
+    public int total;
+    public int incorrect;
+    // Counts over the last RECENT_WINDOW answers in this category
+    public int recentTotal;
+    public int recentIncorrect;
+
+    public double recentAccuracy() {
+        return recentTotal > 0 ? 1.0 - (double) recentIncorrect / recentTotal : 1.0;
+    }
+}
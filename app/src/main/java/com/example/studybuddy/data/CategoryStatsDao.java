@@ -0,0 +1,22 @@
+package com.example.studybuddy.data;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+
+import java.util.List;
+
+// Read-only: rows are maintained by triggers on quiz_history (see AppDatabase)
+@Dao
+public interface CategoryStatsDao {
+    @Query("SELECT * FROM category_stats ORDER BY category")
+    List<CategoryStats> getAll();
+
+    @Query("SELECT * FROM category_stats WHERE category = :category")
+    CategoryStats get(String category);
+
+    // More than 30% of the recent answers in the category were wrong
+    @Query("SELECT category FROM category_stats " +
+           "WHERE recentIncorrect > 0 AND recentIncorrect * 10 > recentTotal * 3 " +
+           "ORDER BY recentIncorrect * 1.0 / recentTotal DESC")
+    List<String> getWeakCategories();
+}
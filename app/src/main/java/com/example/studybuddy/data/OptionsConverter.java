@@ -0,0 +1,27 @@
+package com.example.studybuddy.data;
+
+import androidx.room.TypeConverter;
+import com.google.gson.Gson;
+
+// Stores option arrays as a JSON array of strings, the same format the column has always held,
+// so existing rows read back without a migration. Parsing happens once when Room loads the row.
+public class OptionsConverter {
+    private static final Gson GSON = new Gson();
+
+    @TypeConverter
+    public static String[] fromJson(String json) {
+        if (json == null || json.isEmpty()) {
+            return null;
+        }
+        try {
+            return GSON.fromJson(json, String[].class);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @TypeConverter
+    public static String toJson(String[] options) {
+        return options != null ? GSON.toJson(options) : null;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.studybuddy.data;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+@Dao
+public interface QuestionBankDao {
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertAll(List<CachedQuestion> questions);
+
+    // Least used first; QuestionBank drops questions already asked this session
+    @Query("SELECT * FROM generated_questions " +
+           "WHERE subjectKey = :subjectKey " +
+           "AND createdAt >= :minCreatedAt " +
+           "ORDER BY useCount ASC, lastUsedAt ASC " +
+           "LIMIT :limit")
+    List<CachedQuestion> getQuestions(String subjectKey, long minCreatedAt, int limit);
+
+    @Query("SELECT COUNT(*) FROM generated_questions " +
+           "WHERE subjectKey = :subjectKey AND createdAt >= :minCreatedAt AND useCount = 0")
+    int countUnused(String subjectKey, long minCreatedAt);
+
+    @Query("UPDATE generated_questions SET useCount = useCount + 1, lastUsedAt = :now WHERE id IN (:ids)")
+    void markUsed(List<Long> ids, long now);
+
+    @Query("DELETE FROM generated_questions WHERE createdAt < :minCreatedAt")
+    int deleteExpired(long minCreatedAt);
+
+    // Keeps the most recently used rows; everything past maxRows is evicted
+    @Query("DELETE FROM generated_questions WHERE id NOT IN " +
+           "(SELECT id FROM generated_questions ORDER BY lastUsedAt DESC LIMIT :maxRows)")
+    int trimToSize(int maxRows);
+
+    @Query("DELETE FROM generated_questions")
+    void deleteAll();
+}
@@ -1,10 +1,24 @@
 package com.example.studybuddy.data;
 
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import androidx.room.Ignore;
 
-@Entity(tableName = "quiz_history")
+// Indices follow the QuizHistoryDao access paths: weak-question and category lookups ordered by
+// lastReviewed, per-session reads/deletes in quiz order, history pages ordered by timestamp, and the
+// category_stats triggers' rolling window (latest answers per category), and the due review queue.
+// Add a Migration in AppDatabase when changing them.
+@Entity(tableName = "quiz_history",
+        indices = {
+            @Index(value = {"category", "isCorrect", "lastReviewed"}),
+            @Index(value = {"category", "lastReviewed"}),
+            @Index(value = {"sessionId", "timestamp"}),
+            @Index(value = {"timestamp"}),
+            @Index(value = {"category", "timestamp"}),
+            @Index(value = {"category", "dueAt"})
+        })
 public class QuizHistory {
     @PrimaryKey(autoGenerate = true)
     public long id = 0;
@@ -18,8 +32,18 @@ public class QuizHistory {
     public long timestamp;
     public int reviewCount;
     public long lastReviewed;
-    public String options;
+    public String[] options;
     public String sessionId;
+    // Spaced-repetition state, see SpacedRepetition
+    @ColumnInfo(defaultValue = "2.5")
+    public double easeFactor = 2.5;
+    @ColumnInfo(defaultValue = "0")
+    public int intervalDays;
+    @ColumnInfo(defaultValue = "0")
+    public long dueAt;
+
+    @Ignore
+    private transient String optionsLabel;
     public QuizHistory() {
         this.timestamp = System.currentTimeMillis();
         this.lastReviewed = System.currentTimeMillis();
@@ -39,5 +63,17 @@ public class QuizHistory {
         this.lastReviewed = System.currentTimeMillis();
         this.reviewCount = 0;
     }
+    
+    // "Options: A) ..., B) ...", built once per row so list binds only set text
+    public String getOptionsLabel() {
+        if (optionsLabel == null && options != null && options.length > 0) {
+            StringBuilder label = new StringBuilder("Options: ");
+            for (int i = 0; i < options.length; i++) {
+                label.append((char) ('A' + i)).append(") ").append(options[i]);
+                if (i < options.length - 1) label.append(", ");
+            }
+            optionsLabel = label.toString();
+        }
+        return optionsLabel;
+    }
 }
-
@@ -15,6 +15,15 @@ public interface QuizHistoryDao {
     @Insert
     void insert(QuizHistory quizHistory);
     
+    // One transaction for the whole batch (see QuizResultWriter)
+    @Insert
+    void insertAll(List<QuizHistory> rows);
+    
+    // Used when replaying the write-behind journal to skip rows that were already flushed
+    @Query("SELECT COUNT(*) FROM quiz_history " +
+           "WHERE sessionId IS :sessionId AND timestamp = :timestamp AND question IS :question")
+    int countMatching(String sessionId, long timestamp, String question);
+    
     @Query("SELECT DISTINCT category FROM quiz_history")
     List<String> getAllCategories();
     
@@ -32,6 +41,13 @@ public interface QuizHistoryDao {
            "LIMIT :limit")
     List<QuizHistory> getWeakQuestions(List<String> categories, int limit);
     
+    // Review queue: items whose spaced-repetition interval has elapsed, most overdue first
+    @Query("SELECT * FROM quiz_history " +
+           "WHERE category IN (:categories) AND dueAt <= :now " +
+           "ORDER BY dueAt ASC " +
+           "LIMIT :limit")
+    List<QuizHistory> getDueQuestions(List<String> categories, long now, int limit);
+    
     @Query("SELECT * FROM quiz_history " +
            "WHERE category IN (:categories) " +
            "ORDER BY lastReviewed ASC, reviewCount ASC " +
@@ -44,8 +60,43 @@ public interface QuizHistoryDao {
     @Query("SELECT DISTINCT sessionId FROM quiz_history WHERE sessionId IS NOT NULL ORDER BY timestamp DESC")
     List<String> getAllSessionIds();
     
+    // Keyset on (timestamp, sessionId), newest first, over the session_summary index. Spelled out
+    // rather than as a row-value comparison, which needs SQLite 3.15 (API 26); the leading
+    // timestamp <= term is what lets SQLite seek the index.
+    @Query("SELECT * FROM session_summary " +
+           "WHERE timestamp <= :beforeTimestamp " +
+           "AND (timestamp < :beforeTimestamp OR sessionId < :beforeSessionId) " +
+           "ORDER BY timestamp DESC, sessionId DESC " +
+           "LIMIT :limit")
+    List<SessionSummary> getSessionSummariesPage(long beforeTimestamp, String beforeSessionId, int limit);
+    
+    // The newer sessions above a summary, nearest first, for prepends after a refresh
+    @Query("SELECT * FROM session_summary " +
+           "WHERE timestamp >= :afterTimestamp " +
+           "AND (timestamp > :afterTimestamp OR sessionId > :afterSessionId) " +
+           "ORDER BY timestamp ASC, sessionId ASC " +
+           "LIMIT :limit")
+    List<SessionSummary> getSessionSummariesPageAfter(long afterTimestamp, String afterSessionId, int limit);
+    
     @Query("SELECT * FROM quiz_history WHERE sessionId = :sessionId ORDER BY timestamp ASC")
     List<QuizHistory> getQuestionsBySession(String sessionId);
+    
+    // Keyset page for QuizHistoryPagingSource: starts strictly after the last row of the previous
+    // page on (timestamp, id), so the cost of a page doesn't grow with scroll depth
+    @Query("SELECT * FROM quiz_history " +
+           "WHERE sessionId = :sessionId " +
+           "AND (timestamp > :afterTimestamp OR (timestamp = :afterTimestamp AND id > :afterId)) " +
+           "ORDER BY timestamp ASC, id ASC " +
+           "LIMIT :limit")
+    List<QuizHistory> getQuestionsBySessionPage(String sessionId, long afterTimestamp, long afterId, int limit);
+    
+    // The page before a row, nearest first, for prepends after a refresh that started mid-session
+    @Query("SELECT * FROM quiz_history " +
+           "WHERE sessionId = :sessionId " +
+           "AND (timestamp < :beforeTimestamp OR (timestamp = :beforeTimestamp AND id < :beforeId)) " +
+           "ORDER BY timestamp DESC, id DESC " +
+           "LIMIT :limit")
+    List<QuizHistory> getQuestionsBySessionPageBefore(String sessionId, long beforeTimestamp, long beforeId, int limit);
 
     @Query("DELETE FROM quiz_history WHERE id = :id")
     void deleteById(long id);
@@ -0,0 +1,82 @@
+package com.example.studybuddy.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.paging.ListenableFuturePagingSource;
+import androidx.paging.PagingState;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import java.util.Collections;
+import java.util.List;
+
+// Pages one session's answered questions in quiz order. Appends are keyed on the last row of the
+// previous page and prepends on the first row of the next, so every load is a keyset query on
+// (timestamp, id). A refresh (e.g. after a delete) restarts next to the row the list was showing.
+public class QuizHistoryPagingSource extends ListenableFuturePagingSource<QuizHistory, QuizHistory> {
+    private final QuizHistoryDao dao;
+    private final String sessionId;
+    private final ListeningExecutorService executor;
+
+    public QuizHistoryPagingSource(QuizHistoryDao dao, String sessionId, ListeningExecutorService executor) {
+        this.dao = dao;
+        this.sessionId = sessionId;
+        this.executor = executor;
+    }
+
+    @NonNull
+    @Override
+    public ListenableFuture<LoadResult<QuizHistory, QuizHistory>> loadFuture(@NonNull LoadParams<QuizHistory> params) {
+        QuizHistory key = params.getKey();
+        int limit = params.getLoadSize();
+        boolean prepend = params instanceof LoadParams.Prepend;
+        boolean refresh = params instanceof LoadParams.Refresh;
+        return executor.submit(() -> {
+            try {
+                LoadResult.Page<QuizHistory, QuizHistory> page = prepend ? loadBefore(key, limit) : loadAfter(key, limit);
+                // Everything past the refresh key is gone; start over from the top
+                if (refresh && key != null && page.getData().isEmpty()) {
+                    page = loadAfter(null, limit);
+                }
+                // Build the option labels here rather than during binds on the main thread
+                for (QuizHistory row : page.getData()) {
+                    row.getOptionsLabel();
+                }
+                return page;
+            } catch (Exception e) {
+                android.util.Log.e("QuizHistoryPaging", "Error loading history", e);
+                return new LoadResult.Error<>(e);
+            }
+        });
+    }
+
+    private LoadResult.Page<QuizHistory, QuizHistory> loadAfter(QuizHistory after, int limit) {
+        List<QuizHistory> page = after == null
+                ? dao.getQuestionsBySessionPage(sessionId, Long.MIN_VALUE, Long.MIN_VALUE, limit)
+                : dao.getQuestionsBySessionPage(sessionId, after.timestamp, after.id, limit);
+        QuizHistory prevKey = after == null || page.isEmpty() ? null : page.get(0);
+        QuizHistory nextKey = page.size() < limit ? null : page.get(page.size() - 1);
+        return new LoadResult.Page<>(page, prevKey, nextKey);
+    }
+
+    private LoadResult.Page<QuizHistory, QuizHistory> loadBefore(QuizHistory before, int limit) {
+        List<QuizHistory> page = dao.getQuestionsBySessionPageBefore(sessionId, before.timestamp, before.id, limit);
+        Collections.reverse(page);
+        QuizHistory prevKey = page.size() < limit ? null : page.get(0);
+        return new LoadResult.Page<>(page, prevKey, null);
+    }
+
+    // The row just above the anchor, so the refreshed page starts with the row that was on screen.
+    // At the top of what's loaded that's the first page's prevKey (null if it is the session's start).
+    @Nullable
+    @Override
+    public QuizHistory getRefreshKey(@NonNull PagingState<QuizHistory, QuizHistory> state) {
+        Integer anchor = state.getAnchorPosition();
+        if (anchor == null || state.getPages().isEmpty()) {
+            return null;
+        }
+        if (anchor > 0) {
+            return state.closestItemToPosition(anchor - 1);
+        }
+        return state.getPages().get(0).getPrevKey();
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.studybuddy.data;
+
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+// The ReviewSession fields needed to resume a quiz after process death. Single row (id 0),
+// overwritten after every turn.
+@Entity(tableName = "session_snapshot")
+public class SessionSnapshot {
+    public static final int ID = 0;
+
+    @PrimaryKey
+    public int id = ID;
+
+    public String state;
+    public String subject;
+    public int questionCount;
+    public int currentQuestionIndex;
+    public String currentQuestion;
+    public String[] currentOptions;
+    public int currentAnswerIndex = -1;
+    public String currentExplanation;
+    public String sessionId;
+    public String[] askedQuestions;
+    public String[] weakTopics;
+    // Gson arrays of QuizHistory and ChatMessage; both are only read back on restore
+    public String weakQuestionsJson;
+    public String conversationJson;
+    public String historySynopsis;
+    public long updatedAt;
+}
@@ -0,0 +1,42 @@
+package com.example.studybuddy.data;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import java.util.List;
+
+@Dao
+public interface SessionStoreDao {
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsertMessage(TranscriptEntry entry);
+
+    // Newest first; walks the primary key backwards, so the cost doesn't grow with the transcript
+    @Query("SELECT * FROM chat_transcript ORDER BY id DESC LIMIT :limit")
+    List<TranscriptEntry> getTail(int limit);
+
+    // Drops everything older than the newest :keep messages, which are all a restore reads back
+    @Query("DELETE FROM chat_transcript WHERE id < " +
+            "(SELECT MIN(id) FROM (SELECT id FROM chat_transcript ORDER BY id DESC LIMIT :keep))")
+    void trimTranscript(int keep);
+
+    @Query("SELECT * FROM session_snapshot WHERE id = " + SessionSnapshot.ID)
+    SessionSnapshot getSnapshot();
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void saveSnapshot(SessionSnapshot snapshot);
+
+    @Query("DELETE FROM chat_transcript")
+    void clearTranscript();
+
+    @Query("DELETE FROM session_snapshot")
+    void clearSnapshot();
+
+    @Transaction
+    default void clear() {
+        clearTranscript();
+        clearSnapshot();
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.studybuddy.data;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+// One row per quiz session, kept in sync with quiz_history by the triggers created in
+// AppDatabase, so the history list pages an index instead of re-aggregating every answer
+@Entity(tableName = "session_summary", indices = {@Index(value = {"timestamp", "sessionId"})})
+public class SessionSummary {
+    @PrimaryKey
+    @NonNull
+    @ColumnInfo(name = "sessionId")
+    public String sessionId = "";
+
+    // Category and timestamp of the session's first question
+    @ColumnInfo(name = "category")
+    public String category;
+
+    @ColumnInfo(name = "timestamp")
+    public long timestamp;
+
+    @ColumnInfo(name = "totalQuestions")
+    public int totalQuestions;
+
+    @ColumnInfo(name = "correctCount")
+    public int correctCount;
+}
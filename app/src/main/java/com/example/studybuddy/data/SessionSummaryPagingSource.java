@@ -0,0 +1,76 @@
+package com.example.studybuddy.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.paging.ListenableFuturePagingSource;
+import androidx.paging.PagingState;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import java.util.Collections;
+import java.util.List;
+
+// Pages session summaries newest first. Appends are keyed on the last summary of the previous page
+// and prepends on the first summary of the next, so each load is a keyset query on
+// (timestamp, sessionId) rather than an OFFSET scan. A refresh restarts next to what was on screen.
+public class SessionSummaryPagingSource extends ListenableFuturePagingSource<SessionSummary, SessionSummary> {
+    private final QuizHistoryDao dao;
+    private final ListeningExecutorService executor;
+
+    public SessionSummaryPagingSource(QuizHistoryDao dao, ListeningExecutorService executor) {
+        this.dao = dao;
+        this.executor = executor;
+    }
+
+    @NonNull
+    @Override
+    public ListenableFuture<LoadResult<SessionSummary, SessionSummary>> loadFuture(@NonNull LoadParams<SessionSummary> params) {
+        SessionSummary key = params.getKey();
+        int limit = params.getLoadSize();
+        boolean prepend = params instanceof LoadParams.Prepend;
+        boolean refresh = params instanceof LoadParams.Refresh;
+        return executor.submit(() -> {
+            try {
+                LoadResult.Page<SessionSummary, SessionSummary> page = prepend ? loadNewer(key, limit) : loadOlder(key, limit);
+                // Every session past the refresh key is gone; start over from the newest
+                if (refresh && key != null && page.getData().isEmpty()) {
+                    page = loadOlder(null, limit);
+                }
+                return page;
+            } catch (Exception e) {
+                android.util.Log.e("SessionSummaryPaging", "Error loading sessions", e);
+                return new LoadResult.Error<>(e);
+            }
+        });
+    }
+
+    private LoadResult.Page<SessionSummary, SessionSummary> loadOlder(SessionSummary after, int limit) {
+        List<SessionSummary> page = after == null
+                ? dao.getSessionSummariesPage(Long.MAX_VALUE, "", limit)
+                : dao.getSessionSummariesPage(after.timestamp, after.sessionId, limit);
+        SessionSummary prevKey = after == null || page.isEmpty() ? null : page.get(0);
+        SessionSummary nextKey = page.size() < limit ? null : page.get(page.size() - 1);
+        return new LoadResult.Page<>(page, prevKey, nextKey);
+    }
+
+    private LoadResult.Page<SessionSummary, SessionSummary> loadNewer(SessionSummary before, int limit) {
+        List<SessionSummary> page = dao.getSessionSummariesPageAfter(before.timestamp, before.sessionId, limit);
+        Collections.reverse(page);
+        SessionSummary prevKey = page.size() < limit ? null : page.get(0);
+        return new LoadResult.Page<>(page, prevKey, null);
+    }
+
+    // The summary just above the anchor, so the refreshed page starts with the one that was on screen.
+    // At the top of what's loaded that's the first page's prevKey (null if it is the newest session).
+    @Nullable
+    @Override
+    public SessionSummary getRefreshKey(@NonNull PagingState<SessionSummary, SessionSummary> state) {
+        Integer anchor = state.getAnchorPosition();
+        if (anchor == null || state.getPages().isEmpty()) {
+            return null;
+        }
+        if (anchor > 0) {
+            return state.closestItemToPosition(anchor - 1);
+        }
+        return state.getPages().get(0).getPrevKey();
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.studybuddy.data;
+
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+// One finished chat message, keyed by its MessageLog id so replacing a message overwrites its row
+@Entity(tableName = "chat_transcript")
+public class TranscriptEntry {
+    @PrimaryKey
+    public long id;
+
+    public String role;
+    public String content;
+    public String[] options;
+    public long createdAt;
+}
@@ -0,0 +1,149 @@
+package com.example.studybuddy;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Entry point of the :app:jmh task. Runs the JMH suites with the GC profiler and compares time and
+ * allocation per operation with the checked-in baseline. Allocation per op barely moves between runs
+ * or machines, so growth there fails the task; scores only compare with a baseline recorded on the
+ * same machine, so a slower score is flagged in the table but doesn't fail.
+ * Arguments: include regex, results file, baseline file, and whether to overwrite the baseline.
+ */
+public class BenchmarkBaselines {
+    // A score is flagged slower once it is past this and outside both runs' error margins
+    static final double TIME_TOLERANCE = 0.15;
+    // JIT decisions shift allocation by a few objects between runs; an extra regex or copy is far more
+    static final double ALLOC_TOLERANCE = 0.02;
+    static final double ALLOC_TOLERANCE_BYTES = 64;
+
+    static class Baseline {
+        double score;
+        double scoreError;
+        String unit;
+        double allocBytesPerOp;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String include = args[0];
+        File results = new File(args[1]);
+        File baselineFile = new File(args[2]);
+        boolean update = Boolean.parseBoolean(args[3]);
+
+        results.getParentFile().mkdirs();
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(results.getPath())
+                .build();
+        Map<String, Baseline> current = summarize(new Runner(options).run());
+
+        Gson gson = new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create();
+        if (update || !baselineFile.exists()) {
+            Map<String, Baseline> merged = baselineFile.exists() ? read(gson, baselineFile) : new TreeMap<>();
+            merged.putAll(current);
+            baselineFile.getParentFile().mkdirs();
+            try (Writer writer = new FileWriter(baselineFile)) {
+                gson.toJson(merged, writer);
+            }
+            System.out.println("Recorded " + current.size() + " baselines in " + baselineFile);
+            return;
+        }
+
+        Map<String, Baseline> baseline = read(gson, baselineFile);
+        int regressions = 0;
+        System.out.println(String.format(Locale.US, "%-60s %14s %14s %8s %12s %12s",
+                "benchmark", "score", "baseline", "delta", "B/op", "baseline B/op"));
+        for (Map.Entry<String, Baseline> entry : current.entrySet()) {
+            Baseline now = entry.getValue();
+            Baseline before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.println(String.format(Locale.US, "%-60s %11.1f %-2s %14s", entry.getKey(),
+                        now.score, now.unit, "(new)"));
+                continue;
+            }
+            double delta = (now.score - before.score) / before.score;
+            boolean slower = delta > TIME_TOLERANCE &&
+                    now.score - now.scoreError > before.score + before.scoreError;
+            boolean allocates = now.allocBytesPerOp > before.allocBytesPerOp
+                    + Math.max(ALLOC_TOLERANCE_BYTES, before.allocBytesPerOp * ALLOC_TOLERANCE);
+            if (allocates) {
+                regressions++;
+            }
+            System.out.println(String.format(Locale.US, "%-60s %11.1f %-2s %11.1f %-2s %+7.1f%% %12.0f %12.0f%s",
+                    entry.getKey(), now.score, now.unit, before.score, before.unit, delta * 100,
+                    now.allocBytesPerOp, before.allocBytesPerOp,
+                    allocates ? "  REGRESSION" : slower ? "  slower" : ""));
+        }
+        if (regressions > 0) {
+            System.err.println(regressions + " benchmark(s) allocate more than in " + baselineFile
+                    + "; rerun with -Pjmh.update if the change is intended");
+            System.exit(1);
+        }
+    }
+
+    static Map<String, Baseline> summarize(Collection<RunResult> runs) {
+        Map<String, Baseline> summary = new TreeMap<>();
+        for (RunResult run : runs) {
+            Baseline baseline = new Baseline();
+            baseline.score = run.getPrimaryResult().getScore();
+            // NaN with a single measurement iteration, which Gson refuses to write
+            double error = run.getPrimaryResult().getScoreError();
+            baseline.scoreError = Double.isNaN(error) ? 0 : error;
+            baseline.unit = run.getPrimaryResult().getScoreUnit();
+            for (Map.Entry<String, Result> secondary : run.getSecondaryResults().entrySet()) {
+                if (secondary.getKey().endsWith("gc.alloc.rate.norm")) {
+                    baseline.allocBytesPerOp = secondary.getValue().getScore();
+                }
+            }
+            summary.put(name(run.getParams()), baseline);
+        }
+        return summary;
+    }
+
+    // ParsingBenchmark.extractQuizResult, DiagnosticsBenchmark.completion[logging=BODY]
+    private static String name(BenchmarkParams params) {
+        String benchmark = params.getBenchmark();
+        int method = benchmark.lastIndexOf('.');
+        StringBuilder name = new StringBuilder(benchmark.substring(benchmark.lastIndexOf('.', method - 1) + 1));
+        if (!params.getParamsKeys().isEmpty()) {
+            name.append('[');
+            for (String key : params.getParamsKeys()) {
+                if (name.charAt(name.length() - 1) != '[') {
+                    name.append(',');
+                }
+                name.append(key).append('=').append(params.getParam(key));
+            }
+            name.append(']');
+        }
+        return name.toString();
+    }
+
+    private static Map<String, Baseline> read(Gson gson, File file) throws Exception {
+        try (Reader reader = new FileReader(file)) {
+            Map<String, Baseline> baseline = gson.fromJson(reader, new TypeToken<TreeMap<String, Baseline>>() {}.getType());
+            return baseline != null ? baseline : new TreeMap<>();
+        }
+    }
+}
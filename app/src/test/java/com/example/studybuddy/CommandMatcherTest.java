@@ -0,0 +1,63 @@
+package com.example.studybuddy;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+// CommandMatcher, QuestionParser.parsePlainText and buildCheckPrompt against the regex versions they replaced
+public class CommandMatcherTest {
+    private static final String[] MESSAGES = {
+            "hi", "  Hello \n", "HEY", "hi there", "hey!", "", "   ",
+            "AP Reviewer", "please review my weak topics", "Review My Mistakes now",
+            "focus on weak areas", "what are my WEAK TOPICS?", "weak topic",
+            "Quiz me about Cell Biology", "quiz ME ABOUT  the French Revolution  ",
+            "Can you quiz me about photosynthesis?\nThanks", "quiz me about ", "quiz me about\nGenetics",
+            "quiz me about \nGenetics", "quiz me about quiz me about x",
+            "quiz me about weak topics", "I think it's the mitochondria", "B) Mitochondria",
+    };
+
+    private static final String[] REPLIES = {
+            ParsingBenchmark.LETTERED_REPLY,
+            ParsingBenchmark.NUMBERED_REPLY,
+            "What is 2 + 2?\n- Three\n- Four\n- Five\n- Six",
+            "Pick one:\n12) Twelve\n7.Seven\n  C.   Third  \n\r\nD)Fourth\nextra line\n",
+            "A question\nthat wraps\r\nA)\nB. x\n1.\n-\n- \n  - spaced ",
+            "No options at all",
+            "\n\n\n",
+            "",
+    };
+
+    @Test
+    public void intentsMatchLegacy() {
+        for (String message : MESSAGES) {
+            assertEquals(message, LegacyParsing.match(message), CommandMatcher.match(message));
+            assertEquals(message, LegacyParsing.quizSubject(message), CommandMatcher.quizSubject(message));
+        }
+    }
+
+    @Test
+    public void weakTopicsWinOverQuizSubject() {
+        assertEquals(CommandMatcher.Intent.WEAK_TOPICS, CommandMatcher.match("quiz me about weak topics"));
+        assertEquals(CommandMatcher.Intent.QUIZ_ABOUT, CommandMatcher.match("Quiz me about Cell Biology"));
+        assertEquals("Cell Biology", CommandMatcher.quizSubject("Quiz me about Cell Biology"));
+    }
+
+    @Test
+    public void fallbackParserMatchesLegacy() {
+        for (String reply : REPLIES) {
+            GeneratedQuestion expected = LegacyParsing.parsePlainText(reply);
+            GeneratedQuestion actual = QuestionParser.parsePlainText(reply);
+            assertEquals(reply, expected.question, actual.question);
+            assertArrayEquals(reply, expected.options, actual.options);
+        }
+    }
+
+    @Test
+    public void checkPromptMatchesLegacy() {
+        String[] options = {"Say \"yes\"", "No", "Maybe", "\"\""};
+        assertEquals(LegacyParsing.buildCheckPrompt("Logic", "Is \"this\" true?", options, "Say \"yes\""),
+                ReviewerService.buildCheckPrompt("Logic", "Is \"this\" true?", options, "Say \"yes\""));
+        assertEquals(LegacyParsing.buildCheckPrompt(null, "Q", null, "A"),
+                ReviewerService.buildCheckPrompt(null, "Q", null, "A"));
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.studybuddy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// The regex-based command matching and fallback parsing that CommandMatcher and
+// QuestionParser.parsePlainText replaced, kept as the reference for equivalence tests and benchmarks
+final class LegacyParsing {
+
+    private LegacyParsing() {
+    }
+
+    static CommandMatcher.Intent match(String userMessage) {
+        String trimmedLower = userMessage.toLowerCase().trim();
+        if ("hi".equals(trimmedLower) || "hello".equals(trimmedLower) || "hey".equals(trimmedLower)) {
+            return CommandMatcher.Intent.GREETING;
+        }
+        String lowerMessage = userMessage.toLowerCase();
+        if (lowerMessage.contains("ap reviewer") ||
+            lowerMessage.contains("review my weak topics") ||
+            lowerMessage.contains("review my mistakes") ||
+            lowerMessage.contains("focus on weak areas") ||
+            lowerMessage.contains("weak topics")) {
+            return CommandMatcher.Intent.WEAK_TOPICS;
+        }
+        return quizSubject(userMessage) != null ? CommandMatcher.Intent.QUIZ_ABOUT : CommandMatcher.Intent.NONE;
+    }
+
+    static String quizSubject(String userMessage) {
+        Pattern quizPattern = Pattern.compile("quiz me about (.+)", Pattern.CASE_INSENSITIVE);
+        Matcher matcher = quizPattern.matcher(userMessage);
+        return matcher.find() ? matcher.group(1).trim() : null;
+    }
+
+    static GeneratedQuestion parsePlainText(String text) {
+        String[] lines = text.split("\n");
+        StringBuilder questionBuilder = new StringBuilder();
+        List<String> optionList = new ArrayList<>();
+
+        for (String rawLine : lines) {
+            String line = rawLine.trim();
+            if (line.isEmpty()) continue;
+
+            if (line.matches("^[A-D][\\).]\\s*.+")) {
+                optionList.add(line.substring(2).trim());
+                continue;
+            }
+
+            if (line.matches("^[0-9]+[\\).]\\s*.+")) {
+                line = line.replaceFirst("^[0-9]+[\\).]\\s*", "").trim();
+                optionList.add(line);
+                continue;
+            }
+
+            if (line.startsWith("- ")) {
+                optionList.add(line.substring(2).trim());
+                continue;
+            }
+
+            if (questionBuilder.length() == 0) {
+                questionBuilder.append(line);
+            } else {
+                if (optionList.isEmpty()) {
+                    questionBuilder.append(" ").append(line);
+                } else {
+                    optionList.add(line);
+                }
+            }
+        }
+
+        String[] options = new String[4];
+        int count = Math.min(4, optionList.size());
+        for (int i = 0; i < count; i++) {
+            options[i] = optionList.get(i);
+        }
+        return new GeneratedQuestion(questionBuilder.toString(), options);
+    }
+
+    static String buildCheckPrompt(String subject, String question, String[] options, String userAnswer) {
+        String optionsText = "";
+        if (options != null && options.length > 0) {
+            optionsText = "\nOptions:\n";
+            for (int i = 0; i < options.length; i++) {
+                optionsText += (char)('A' + i) + ") " + options[i] + "\n";
+            }
+        }
+
+        return "Q: " + question + optionsText +
+                "\nUser selected: " + userAnswer +
+                "\n\nCheck if the user's answer is correct. Reply with: Correct/Incorrect, the correct answer (from options), brief explanation (1 sentence), then JSON: " +
+                "{\"category\":\"" + (subject != null ? subject : "General") +
+                "\",\"question\":\"" + question.replace("\"", "\\\"") +
+                "\",\"user_answer\":\"" + userAnswer.replace("\"", "\\\"") +
+                "\",\"correct_answer\":\"[correct option from A/B/C/D]\",\"is_correct\":true/false,\"explanation\":\"[explanation]\"}";
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.studybuddy;
+
+import com.example.studybuddy.api.QuizResult;
+import com.example.studybuddy.data.OptionsConverter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH suite for the per-turn string work in ReviewerService and QuestionParser: answer-check
+ * parsing and prompt building, chat command matching, the plain-text fallback parser and option
+ * (de)serialization. The legacy* methods are the regex versions these replaced, for comparison;
+ * the GC profiler's alloc rate shows what each one costs per message.
+ * Run with ./gradlew :app:jmh -Pjmh.include=Parsing
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParsingBenchmark {
+    static final String SUBJECT = "Cell Biology";
+    static final String QUESTION = "Which organelle is known as the \"powerhouse\" of the cell?";
+    static final String[] OPTIONS = {"Nucleus", "Mitochondria", "Ribosome", "Golgi apparatus"};
+    static final String OPTIONS_JSON = OptionsConverter.toJson(OPTIONS);
+
+    // A typical answer-check reply: a sentence or two of prose, then the JSON object
+    static final String CHECK_REPLY = "Incorrect. The correct answer is B) Mitochondria.\n" +
+            "Mitochondria produce most of the cell's ATP through cellular respiration.\n\n" +
+            "{\"category\":\"Cell Biology\",\"question\":\"Which organelle is known as the \\\"powerhouse\\\" " +
+            "of the cell?\",\"user_answer\":\"A\",\"correct_answer\":\"B\",\"is_correct\":false," +
+            "\"explanation\":\"Mitochondria produce most of the cell's ATP through cellular respiration.\"}";
+
+    static final String LETTERED_REPLY = "Which organelle is known as the powerhouse\n" +
+            "of the cell?\n\nA) Nucleus\nB) Mitochondria\nC) Ribosome\nD) Golgi apparatus\n";
+
+    static final String NUMBERED_REPLY = "Which organelle is known as the powerhouse of the cell?\n" +
+            "1. Nucleus\n2. Mitochondria\n3. Ribosome\n4. Golgi apparatus\n";
+
+    static final String BATCH_REPLY = "{\"questions\":[" +
+            "{\"question\":\"Which organelle is known as the powerhouse of the cell?\"," +
+            "\"options\":[\"Nucleus\",\"Mitochondria\",\"Ribosome\",\"Golgi apparatus\"]," +
+            "\"answer_index\":1,\"explanation\":\"Mitochondria produce most of the cell's ATP.\"}," +
+            "{\"question\":\"Where are proteins assembled?\"," +
+            "\"options\":[\"Lysosome\",\"Ribosome\",\"Vacuole\",\"Cell wall\"]," +
+            "\"answer_index\":1,\"explanation\":\"Ribosomes translate mRNA into protein.\"}," +
+            "{\"question\":\"Which structure controls what enters and leaves the cell?\"," +
+            "\"options\":[\"Cell membrane\",\"Nucleolus\",\"Cytoskeleton\",\"Centriole\"]," +
+            "\"answer_index\":0,\"explanation\":\"The membrane is selectively permeable.\"}]}";
+
+    static final String QUIZ_COMMAND = "Quiz me about Cell Biology";
+    static final String WEAK_TOPICS_COMMAND = "Can you review my weak topics?";
+    // Not a command: an answer typed mid-quiz, which has to miss every rule
+    static final String PLAIN_MESSAGE = "I think it's the mitochondria, since it makes ATP";
+
+    @Benchmark
+    public CommandMatcher.Intent commandMatchPlain() {
+        return CommandMatcher.match(PLAIN_MESSAGE);
+    }
+
+    @Benchmark
+    public CommandMatcher.Intent commandMatchWeakTopics() {
+        return CommandMatcher.match(WEAK_TOPICS_COMMAND);
+    }
+
+    @Benchmark
+    public String commandQuizSubject() {
+        return CommandMatcher.quizSubject(QUIZ_COMMAND);
+    }
+
+    @Benchmark
+    public CommandMatcher.Intent legacyCommandMatchPlain() {
+        return LegacyParsing.match(PLAIN_MESSAGE);
+    }
+
+    @Benchmark
+    public String legacyCommandQuizSubject() {
+        return LegacyParsing.quizSubject(QUIZ_COMMAND);
+    }
+
+    @Benchmark
+    public QuizResult extractQuizResult() {
+        return ReviewerService.parseQuizResult(CHECK_REPLY, SUBJECT, QUESTION, "A");
+    }
+
+    @Benchmark
+    public String checkAnswerPrompt() {
+        return ReviewerService.buildCheckPrompt(SUBJECT, QUESTION, OPTIONS, "A");
+    }
+
+    @Benchmark
+    public GeneratedQuestion fallbackParserLettered() {
+        return QuestionParser.parsePlainText(LETTERED_REPLY);
+    }
+
+    @Benchmark
+    public GeneratedQuestion fallbackParserNumbered() {
+        return QuestionParser.parsePlainText(NUMBERED_REPLY);
+    }
+
+    @Benchmark
+    public String legacyCheckAnswerPrompt() {
+        return LegacyParsing.buildCheckPrompt(SUBJECT, QUESTION, OPTIONS, "A");
+    }
+
+    @Benchmark
+    public GeneratedQuestion legacyFallbackParserLettered() {
+        return LegacyParsing.parsePlainText(LETTERED_REPLY);
+    }
+
+    @Benchmark
+    public GeneratedQuestion legacyFallbackParserNumbered() {
+        return LegacyParsing.parsePlainText(NUMBERED_REPLY);
+    }
+
+    @Benchmark
+    public List<GeneratedQuestion> parseJsonBatch() {
+        return QuestionParser.parseBatch(BATCH_REPLY);
+    }
+
+    @Benchmark
+    public String serializeOptions() {
+        return OptionsConverter.toJson(OPTIONS);
+    }
+
+    @Benchmark
+    public String[] deserializeOptions() {
+        return OptionsConverter.fromJson(OPTIONS_JSON);
+    }
+}
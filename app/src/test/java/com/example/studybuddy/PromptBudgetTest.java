@@ -0,0 +1,105 @@
+package com.example.studybuddy;
+
+import com.example.studybuddy.api.ChatMessage;
+import com.example.studybuddy.api.GroqMetrics;
+import com.example.studybuddy.api.PromptBudget;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+// PromptBudget.compact on its own and through the free-chat prompt ReviewerService sends
+public class PromptBudgetTest {
+    private static final int FREE_CHAT_BUDGET = PromptBudget.promptBudget(GroqMetrics.CallType.FREE_CHAT);
+
+    @Test
+    public void compact_leavesHistoryWithinBudgetAlone() {
+        List<ChatMessage> history = new ArrayList<>(Arrays.asList(
+                new ChatMessage("user", "hi"), new ChatMessage("assistant", "Hello!")));
+        assertNull(PromptBudget.compact(history, null, 100));
+        assertEquals(2, history.size());
+    }
+
+    @Test
+    public void compact_movesOldestTurnsIntoSynopsis() {
+        List<ChatMessage> history = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            history.add(new ChatMessage(i % 2 == 0 ? "user" : "assistant", "Turn " + i + " " + repeat('x', 80)));
+        }
+        String synopsis = PromptBudget.compact(history, null, 100);
+
+        assertTrue(PromptBudget.estimateTokens(history) <= 100);
+        assertEquals("Turn 9", history.get(history.size() - 1).content.substring(0, 6));
+        assertTrue(synopsis, synopsis.startsWith("user: Turn 0 "));
+        assertEquals(10 - history.size(), synopsis.split("\n").length);
+    }
+
+    @Test
+    public void compact_keepsOversizedNewestTurnCutToFit() {
+        List<ChatMessage> history = new ArrayList<>(Arrays.asList(
+                new ChatMessage("user", "Summarise this"),
+                new ChatMessage("assistant", repeat('y', 4000))));
+        String synopsis = PromptBudget.compact(history, null, 200);
+
+        assertEquals(1, history.size());
+        assertEquals("assistant", history.get(0).role);
+        assertTrue(history.get(0).content.endsWith("..."));
+        assertTrue(PromptBudget.estimateTokens(history) <= 200);
+        assertEquals("user: Summarise this\n", synopsis);
+    }
+
+    @Test
+    public void compact_capsSynopsisKeepingNewestLines() {
+        List<ChatMessage> history = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            history.add(new ChatMessage("user", "Question number " + i + " " + repeat('z', 200)));
+        }
+        String synopsis = PromptBudget.compact(history, null, 50);
+
+        assertTrue(PromptBudget.estimateTokens(synopsis) <= PromptBudget.SYNOPSIS_BUDGET);
+        assertTrue(synopsis.contains("Question number 198 "));
+        assertFalse(synopsis.contains("Question number 0 "));
+    }
+
+    @Test
+    public void freeChatPrompt_staysWithinBudgetAndKeepsSystemAndLatestTurn() {
+        ReviewSession session = new ReviewSession();
+        String systemPrompt = ReviewerService.chatPrompt(session, "hi").get(0).content;
+        // User messages up to the reserve, and replies of varying length, some too long to fit on their own
+        String longestUserMessage = repeat('u', ReviewerService.USER_MESSAGE_RESERVE * 4);
+        for (int turn = 0; turn < 60; turn++) {
+            String userMessage = turn % 3 == 0 ? longestUserMessage : "Tell me more about topic " + turn;
+            List<ChatMessage> prompt = ReviewerService.chatPrompt(session, userMessage);
+
+            assertTrue("turn " + turn + ": ~" + PromptBudget.estimateTokens(prompt) + " tokens",
+                    PromptBudget.estimateTokens(prompt) <= FREE_CHAT_BUDGET);
+            assertEquals("system", prompt.get(0).role);
+            assertEquals(systemPrompt, prompt.get(0).content);
+            assertEquals(userMessage, prompt.get(prompt.size() - 1).content);
+            if (turn > 0) {
+                assertEquals("Reply " + (turn - 1), prompt.get(prompt.size() - 2).content.substring(0, 6 + digits(turn - 1)));
+            }
+
+            ReviewerService.appendHistory(session, new ChatMessage("user", userMessage));
+            ReviewerService.appendHistory(session, new ChatMessage("assistant",
+                    "Reply " + turn + " " + repeat('r', turn % 5 == 0 ? 8000 : 1500)));
+        }
+        assertNotNull(session.historySynopsis);
+        List<ChatMessage> prompt = ReviewerService.chatPrompt(session, "bye");
+        assertTrue(prompt.get(1).content.startsWith("Earlier in this session:\n"));
+    }
+
+    private static int digits(int n) {
+        return String.valueOf(n).length();
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.studybuddy;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+// QuestionParser.parseBatch against well-formed, malformed and partial generator output
+public class QuestionParserTest {
+    private static final String ATP =
+            "{\"question\":\"What does ATP store?\",\"options\":[\"Energy\",\"Water\",\"DNA\",\"Oxygen\"]," +
+            "\"answer_index\":0,\"explanation\":\"ATP is the cell's energy currency.\"}";
+    private static final String DNA =
+            "{\"question\":\"Where is DNA found?\",\"options\":[\"Ribosome\",\"Nucleus\",\"Membrane\",\"Vacuole\"]," +
+            "\"answer_index\":1}";
+
+    @Test
+    public void questionsObject() {
+        List<GeneratedQuestion> questions = QuestionParser.parseBatch("{\"questions\":[" + ATP + "," + DNA + "]}");
+        assertEquals(2, questions.size());
+        GeneratedQuestion first = questions.get(0);
+        assertEquals("What does ATP store?", first.question);
+        assertArrayEquals(new String[]{"Energy", "Water", "DNA", "Oxygen"}, first.options);
+        assertEquals(0, first.answerIndex);
+        assertTrue(first.hasAnswerKey());
+        assertEquals("ATP is the cell's energy currency.", first.explanation);
+        assertEquals(1, questions.get(1).answerIndex);
+        assertNull(questions.get(1).explanation);
+    }
+
+    @Test
+    public void bareArrayAndSingleObject() {
+        assertEquals(2, QuestionParser.parseBatch("[" + ATP + "," + DNA + "]").size());
+        List<GeneratedQuestion> single = QuestionParser.parseBatch(DNA);
+        assertEquals(1, single.size());
+        assertEquals("Where is DNA found?", single.get(0).question);
+    }
+
+    @Test
+    public void jsonWrappedInProseOrCodeFence() {
+        String fenced = "Here are your questions:\n```json\n{\"questions\":[" + ATP + "]}\n```\nGood luck!";
+        List<GeneratedQuestion> questions = QuestionParser.parseBatch(fenced);
+        assertEquals(1, questions.size());
+        assertEquals("What does ATP store?", questions.get(0).question);
+    }
+
+    @Test
+    public void extraOptionsAreCappedAtFour() {
+        List<GeneratedQuestion> questions = QuestionParser.parseBatch(
+                "{\"question\":\"Pick one\",\"options\":[\"a\",\"b\",\"c\",\"d\",\"e\"],\"answer_index\":4}");
+        assertEquals(1, questions.size());
+        assertArrayEquals(new String[]{"a", "b", "c", "d"}, questions.get(0).options);
+        // The answer pointed past the options that were kept
+        assertEquals(-1, questions.get(0).answerIndex);
+    }
+
+    @Test
+    public void malformedItemsAreSkipped() {
+        String batch = "{\"questions\":[" +
+                "{\"question\":\"Three options\",\"options\":[\"a\",\"b\",\"c\"]}," +
+                "{\"question\":\"\",\"options\":[\"a\",\"b\",\"c\",\"d\"]}," +
+                "{\"question\":\"Options as text\",\"options\":\"a, b, c, d\"}," +
+                "\"just a string\"," +
+                DNA + "]}";
+        List<GeneratedQuestion> questions = QuestionParser.parseBatch(batch);
+        assertEquals(1, questions.size());
+        assertEquals("Where is DNA found?", questions.get(0).question);
+    }
+
+    @Test
+    public void unusableAnswerKeyKeepsQuestion() {
+        List<GeneratedQuestion> questions = QuestionParser.parseBatch(
+                "{\"question\":\"Q?\",\"options\":[\"a\",\"b\",\"c\",\"d\"],\"answer_index\":\"B\"}");
+        assertEquals(1, questions.size());
+        assertEquals(-1, questions.get(0).answerIndex);
+        assertFalse(questions.get(0).hasAnswerKey());
+    }
+
+    @Test
+    public void plainTextFallback() {
+        List<GeneratedQuestion> questions = QuestionParser.parseBatch(
+                "Which organelle makes ATP?\nA) Nucleus\nB) Mitochondria\nC) Ribosome\nD) Golgi body");
+        assertEquals(1, questions.size());
+        assertEquals("Which organelle makes ATP?", questions.get(0).question);
+        assertArrayEquals(new String[]{"Nucleus", "Mitochondria", "Ribosome", "Golgi body"}, questions.get(0).options);
+        assertFalse(questions.get(0).hasAnswerKey());
+    }
+
+    @Test
+    public void emptyOrProseOnly() {
+        assertTrue(QuestionParser.parseBatch(null).isEmpty());
+        assertTrue(QuestionParser.parseBatch("  \n ").isEmpty());
+        assertTrue(QuestionParser.parseBatch("Sorry, I can't help with that.").isEmpty());
+    }
+
+    // Output cut off by max_tokens doesn't parse as a batch; the streaming caller then falls back to
+    // the objects StreamingQuestionParser saw complete
+    @Test
+    public void truncatedOutput() {
+        String cut = "{\"questions\":[" + ATP + ",{\"question\":\"Where is DNA fo";
+        assertTrue(QuestionParser.parseBatch(cut).isEmpty());
+        assertTrue(QuestionParser.parseBatch("{\"question\":\"What does ATP st").isEmpty());
+
+        StreamingQuestionParser streaming = new StreamingQuestionParser();
+        streaming.append(cut);
+        assertEquals(1, streaming.completedQuestions().size());
+        assertEquals("What does ATP store?", streaming.completedQuestions().get(0).question);
+    }
+
+    @Test
+    public void partialPlainTextIsIncomplete() {
+        assertTrue(QuestionParser.parseBatch("Which organelle makes ATP?\nA) Nucleus\nB) Mitochondria").isEmpty());
+        GeneratedQuestion partial = QuestionParser.parsePlainText("Which organelle makes ATP?\nA) Nucleus\nB) Mitochondria");
+        assertFalse(partial.isComplete());
+        assertArrayEquals(new String[]{"Nucleus", "Mitochondria", null, null}, partial.options);
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.studybuddy;
+
+import android.app.Application;
+import android.os.Looper;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.studybuddy.api.ChatMessage;
+import com.example.studybuddy.api.GroqApiService;
+import com.example.studybuddy.api.GroqCallExecutor;
+import com.example.studybuddy.api.GroqMetrics;
+import com.example.studybuddy.api.MockGroqServer;
+import com.example.studybuddy.data.AppDatabase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Whole quiz flows through ReviewerViewModel against MockGroqServer, so prefetching, retry and
+ * caching changes can be measured offline.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class QuizFlowTest {
+    private static final long TIMEOUT_MS = 15000;
+    private static final long SERVER_LATENCY_MS = 250;
+
+    private MockGroqServer server;
+    private ReviewerViewModel viewModel;
+    private MessageLog log;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockGroqServer();
+        GroqApiService.Factory.setBaseUrl(server.start());
+        // Real account limits, but retries that don't stretch the test
+        GroqApiService.Factory.setCallExecutor(new GroqCallExecutor(10,
+                GroqCallExecutor.REQUESTS_PER_MINUTE, GroqCallExecutor.TOKENS_PER_MINUTE));
+        GroqApiService.Factory.metrics().reset();
+
+        // The database outlives each test's Application; Room won't clear it on the main thread
+        Application application = ApplicationProvider.getApplicationContext();
+        Thread clear = new Thread(() -> AppDatabase.getDatabase(application).clearAllTables());
+        clear.start();
+        clear.join();
+
+        viewModel = new ReviewerViewModel(application);
+        log = viewModel.getMessageLog();
+        viewModel.startSession();
+        awaitMessage(0, "Quiz me about");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        viewModel.onCleared();
+        GroqApiService.Factory.setBaseUrl(GroqApiService.BASE_URL);
+        GroqApiService.Factory.setCallExecutor(new GroqCallExecutor());
+        server.shutdown();
+    }
+
+    @Test
+    public void fullQuiz_gradesLocallyAndEndsWithSummary() throws Exception {
+        int question = startQuiz("Cell Biology", 3);
+        for (int i = 0; i < 3; i++) {
+            int graded = answerCorrectly(question);
+            assertTrue(log.get(graded).content.startsWith("✅ Correct!"));
+            question = i < 2 ? awaitQuestion(graded + 1) : graded;
+        }
+        awaitMessage(question, "Completed all 3 questions!");
+        awaitMessage(question, "Topic summary:");
+
+        // One batch covers the quiz, the answer key grades it, and the summary was generated up front
+        assertEquals(1, server.requestCount(MockGroqServer.Kind.GENERATE));
+        assertEquals(0, server.requestCount(MockGroqServer.Kind.CHECK));
+        assertEquals(0, server.requestCount(MockGroqServer.Kind.PREGRADE));
+        assertEquals(1, server.requestCount(MockGroqServer.Kind.SUMMARY));
+    }
+
+    @Test
+    public void nextQuestion_doesNotWaitOnGroq() throws Exception {
+        server.setLatency(SERVER_LATENCY_MS);
+        int total = 8;
+
+        long started = System.nanoTime();
+        int question = startQuiz("Photosynthesis", total);
+        long firstMs = elapsedMs(started);
+        assertTrue("First question took " + firstMs + "ms", firstMs >= SERVER_LATENCY_MS);
+
+        List<Long> nextMs = new ArrayList<>();
+        for (int i = 1; i < total; i++) {
+            // Think time: prefetching keeps a question buffered, and the answer is served from it
+            awaitUntil(() -> viewModel.session.bufferedQuestionCount() > 0);
+            String buffered = viewModel.session.prefetchedQuestionTexts().get(0);
+            started = System.nanoTime();
+            int graded = answerCorrectly(question);
+            question = awaitQuestion(graded + 1);
+            nextMs.add(elapsedMs(started));
+            assertTrue("Question " + (i + 1) + " was not the buffered one (" + buffered + ") after " + nextMs
+                    + "ms waits:\n" + transcript(), log.get(question).content.contains(buffered));
+        }
+        answerCorrectly(question);
+
+        // Batched generation: far fewer calls than questions
+        assertTrue("Next question waits " + nextMs + "ms; first " + firstMs + "ms\n"
+                        + GroqApiService.Factory.metrics().summary(),
+                server.requestCount(MockGroqServer.Kind.GENERATE) <= 3);
+    }
+
+    @Test
+    public void transientErrors_areRetried() throws Exception {
+        server.failNext(1, 503);
+        server.failNext(1, 429);
+
+        startQuiz("Genetics", 1);
+
+        assertEquals(2, server.rejectedCount());
+        assertEquals(2, GroqApiService.Factory.metrics().get(GroqMetrics.CallType.GENERATE).retries.get());
+    }
+
+    @Test
+    public void outage_endsQuizWithMessage() throws Exception {
+        server.failNext(10, 503);
+
+        viewModel.sendMessage("Quiz me about Astronomy");
+        int asked = awaitMessage(0, "How many questions");
+        viewModel.sendMessage("2");
+        awaitMessage(asked, "I couldn't understand the quiz generated for this topic");
+
+        // One call, all three attempts failed
+        assertEquals(3, server.rejectedCount());
+        assertEquals(SessionState.WAITING_FOR_COMMAND, viewModel.session.state);
+    }
+
+    @Test
+    public void rateLimited_summaryIsSkipped() throws Exception {
+        // Enough for the question batch; the summary call that follows is over the limit, and
+        // waiting out the window is longer than the executor will block for
+        server.setRateLimit(1);
+
+        int question = startQuiz("Ecology", 1);
+        int graded = answerCorrectly(question);
+        awaitMessage(graded, "Completed all 1 questions!");
+        awaitUntil(() -> server.rejectedCount() == 1);
+
+        Thread.sleep(100);
+        idle();
+        assertEquals(-1, findMessage(graded, "Topic summary:"));
+    }
+
+    // Returns the position of the first question
+    private int startQuiz(String subject, int questions) throws Exception {
+        int from = log.size();
+        viewModel.sendMessage("Quiz me about " + subject);
+        int asked = awaitMessage(from, "How many questions");
+        viewModel.sendMessage(String.valueOf(questions));
+        return awaitQuestion(asked + 1);
+    }
+
+    // Taps the right option, as the option buttons do; returns the position of the graded reply
+    private int answerCorrectly(int question) throws Exception {
+        String[] options = log.get(question).options;
+        viewModel.sendMessage(options[viewModel.session.currentAnswerIndex]);
+        return awaitCondition(() -> {
+            int graded = findMessage(question + 1, "Correct");
+            return graded >= 0 && !log.get(graded).streaming ? graded : -1;
+        });
+    }
+
+    private int awaitQuestion(int from) throws Exception {
+        return awaitCondition(() -> {
+            for (int i = from; i < log.size(); i++) {
+                ChatMessage message = log.get(i);
+                if (message.hasOptions() && !message.streaming) {
+                    return i;
+                }
+            }
+            return -1;
+        });
+    }
+
+    private int awaitMessage(int from, String fragment) throws Exception {
+        return awaitCondition(() -> findMessage(from, fragment));
+    }
+
+    private void awaitUntil(BooleanCondition condition) throws Exception {
+        awaitCondition(() -> condition.met() ? 0 : -1);
+    }
+
+    // Runs the main looper (MessageLog applies changes there) until the probe finds something
+    private int awaitCondition(Probe probe) throws Exception {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (System.currentTimeMillis() < deadline) {
+            idle();
+            int found = probe.find();
+            if (found >= 0) {
+                return found;
+            }
+            Thread.sleep(5);
+        }
+        fail("Timed out; transcript:\n" + transcript());
+        return -1;
+    }
+
+    private int findMessage(int from, String fragment) {
+        for (int i = from; i < log.size(); i++) {
+            if (log.get(i).content != null && log.get(i).content.contains(fragment)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private String transcript() {
+        StringBuilder transcript = new StringBuilder();
+        for (int i = 0; i < log.size(); i++) {
+            transcript.append(log.get(i).role).append(": ").append(log.get(i).content).append('\n');
+        }
+        return transcript.toString();
+    }
+
+    private static void idle() {
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+
+    private static long elapsedMs(long startedNanos) {
+        return (System.nanoTime() - startedNanos) / 1_000_000;
+    }
+
+    private interface Probe {
+        int find();
+    }
+
+    private interface BooleanCondition {
+        boolean met();
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.studybuddy;
+
+import com.example.studybuddy.data.CategoryPerformance;
+import com.example.studybuddy.data.QuizHistory;
+import com.example.studybuddy.data.QuizHistoryDao;
+import com.example.studybuddy.data.SessionSummary;
+import com.google.gson.Gson;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+// Journal replay after a simulated process death, and retry of a failed batch insert
+public class QuizResultWriterTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<TaskScheduler> schedulers = new ArrayList<>();
+    private File journal;
+
+    @Before
+    public void setUp() throws IOException {
+        journal = new File(folder.getRoot(), "pending_quiz_results.jsonl");
+    }
+
+    @After
+    public void tearDown() {
+        for (TaskScheduler scheduler : schedulers) {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void recover_skipsRowsAlreadyInDatabase() throws Exception {
+        FakeDao dao = new FakeDao();
+        TaskScheduler first = newScheduler();
+        QuizResultWriter writer = new QuizResultWriter(dao, first, journal);
+        List<QuizHistory> rows = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            QuizHistory row = row("Q" + i, 1000L + i);
+            rows.add(row);
+            writer.enqueue(row);
+        }
+        // On disk as soon as enqueue returns, before any database work runs
+        assertEquals(3, journalLines());
+        drain(first);
+        // The process dies after the first two rows were committed but before the journal was rewritten
+        dao.insertAll(rows.subList(0, 2));
+        first.shutdown();
+
+        TaskScheduler second = newScheduler();
+        new QuizResultWriter(dao, second, journal).recover();
+        drain(second);
+        assertQuestions(dao, "Q0", "Q1", "Q2");
+        assertFalse("journal should be cleared once flushed", journal.exists());
+
+        // A second restart has nothing left to replay
+        TaskScheduler third = newScheduler();
+        new QuizResultWriter(dao, third, journal).recover();
+        drain(third);
+        assertQuestions(dao, "Q0", "Q1", "Q2");
+    }
+
+    @Test
+    public void recover_skipsTornLastLine() throws Exception {
+        Gson gson = new Gson();
+        String lines = gson.toJson(row("Q0", 1000L)) + "\n" + gson.toJson(row("Q1", 1001L)) + "\n" +
+                "{\"category\":\"Bio";
+        Files.write(journal.toPath(), lines.getBytes(StandardCharsets.UTF_8));
+
+        FakeDao dao = new FakeDao();
+        TaskScheduler scheduler = newScheduler();
+        new QuizResultWriter(dao, scheduler, journal).recover();
+        drain(scheduler);
+        assertQuestions(dao, "Q0", "Q1");
+    }
+
+    @Test
+    public void failedFlush_keepsRowsJournaledAndRetries() throws Exception {
+        FakeDao dao = new FakeDao();
+        dao.failuresLeft = 1;
+        TaskScheduler scheduler = newScheduler();
+        QuizResultWriter writer = new QuizResultWriter(dao, scheduler, journal);
+        for (int i = 0; i < QuizResultWriter.FLUSH_THRESHOLD; i++) {
+            writer.enqueue(row("Q" + i, 1000L + i));
+        }
+        drain(scheduler);
+        assertEquals(0, dao.size());
+        assertEquals(QuizResultWriter.FLUSH_THRESHOLD, journalLines());
+
+        // First retry comes FLUSH_DELAY_MS after the failure
+        long deadline = System.currentTimeMillis() + QuizResultWriter.FLUSH_DELAY_MS * 3;
+        while (dao.size() < QuizResultWriter.FLUSH_THRESHOLD && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        drain(scheduler);
+        assertEquals(QuizResultWriter.FLUSH_THRESHOLD, dao.size());
+        assertFalse(journal.exists());
+    }
+
+    private TaskScheduler newScheduler() {
+        TaskScheduler scheduler = new TaskScheduler();
+        schedulers.add(scheduler);
+        return scheduler;
+    }
+
+    // Waits for everything already queued on the database lane
+    private static void drain(TaskScheduler scheduler) throws Exception {
+        scheduler.submit(TaskScheduler.Lane.DATABASE, TaskScheduler.Priority.LOW, () -> { })
+                .get(5, TimeUnit.SECONDS);
+    }
+
+    private int journalLines() throws IOException {
+        return journal.exists() ? Files.readAllLines(journal.toPath(), StandardCharsets.UTF_8).size() : 0;
+    }
+
+    private static QuizHistory row(String question, long timestamp) {
+        QuizHistory row = new QuizHistory("Biology", question, "A", "A", true, "");
+        row.sessionId = "session-1";
+        row.timestamp = timestamp;
+        return row;
+    }
+
+    private static void assertQuestions(FakeDao dao, String... questions) {
+        List<String> stored = new ArrayList<>();
+        for (QuizHistory row : dao.getAllHistory()) {
+            stored.add(row.question);
+        }
+        stored.sort(null);
+        assertEquals(java.util.Arrays.asList(questions), stored);
+    }
+
+    // Just enough of quiz_history for the writer: batch inserts and the replay lookup
+    private static class FakeDao implements QuizHistoryDao {
+        private final List<QuizHistory> rows = new ArrayList<>();
+        int failuresLeft;
+
+        synchronized int size() {
+            return rows.size();
+        }
+
+        @Override
+        public synchronized List<QuizHistory> getAllHistory() {
+            return new ArrayList<>(rows);
+        }
+
+        @Override
+        public synchronized void insert(QuizHistory quizHistory) {
+            rows.add(quizHistory);
+        }
+
+        @Override
+        public synchronized void insertAll(List<QuizHistory> batch) {
+            if (failuresLeft > 0) {
+                failuresLeft--;
+                throw new IllegalStateException("database is locked");
+            }
+            rows.addAll(batch);
+        }
+
+        @Override
+        public synchronized int countMatching(String sessionId, long timestamp, String question) {
+            int count = 0;
+            for (QuizHistory row : rows) {
+                if (Objects.equals(row.sessionId, sessionId) && row.timestamp == timestamp &&
+                        Objects.equals(row.question, question)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public List<String> getAllCategories() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<CategoryPerformance> getCategoryPerformance() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<QuizHistory> getWeakQuestions(List<String> categories, int limit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<QuizHistory> getDueQuestions(List<String> categories, long now, int limit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<QuizHistory> getQuestionsByCategories(List<String> categories, int limit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void update(QuizHistory quizHistory) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<String> getAllSessionIds() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<SessionSummary> getSessionSummariesPage(long beforeTimestamp, String beforeSessionId, int limit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<SessionSummary> getSessionSummariesPageAfter(long afterTimestamp, String afterSessionId, int limit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<QuizHistory> getQuestionsBySession(String sessionId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<QuizHistory> getQuestionsBySessionPage(String sessionId, long afterTimestamp, long afterId, int limit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<QuizHistory> getQuestionsBySessionPageBefore(String sessionId, long beforeTimestamp, long beforeId, int limit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void deleteById(long id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void deleteBySessionId(String sessionId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void deleteAll() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
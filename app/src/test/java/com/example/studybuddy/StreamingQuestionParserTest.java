@@ -0,0 +1,82 @@
+package com.example.studybuddy;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+// StreamingQuestionParser fed the generator output in pieces, split at every possible boundary
+public class StreamingQuestionParserTest {
+    private static final String BATCH = "{\"questions\":[" +
+            "{\"question\":\"Is \\\"{ATP}\\\" \\u00e9nergie?\",\"options\":[\"Yes\",\"No\",\"}\",\"{\"],\"answer_index\":0}," +
+            "{\"question\":\"Where is DNA found?\",\"options\":[\"Ribosome\",\"Nucleus\",\"Membrane\",\"Vacuole\"]," +
+            "\"answer_index\":1}]}";
+
+    @Test
+    public void oneCharacterAtATime() {
+        StreamingQuestionParser parser = new StreamingQuestionParser();
+        for (int i = 0; i < BATCH.length(); i++) {
+            parser.append(BATCH.substring(i, i + 1));
+        }
+        assertBothQuestions(parser);
+    }
+
+    @Test
+    public void everyTwoWaySplit() {
+        for (int split = 0; split <= BATCH.length(); split++) {
+            StreamingQuestionParser parser = new StreamingQuestionParser();
+            parser.append(BATCH.substring(0, split));
+            parser.append(BATCH.substring(split));
+            assertBothQuestions(parser);
+        }
+    }
+
+    @Test
+    public void questionsCompleteAsTheirClosingBraceArrives() {
+        StreamingQuestionParser parser = new StreamingQuestionParser();
+        int firstEnd = BATCH.indexOf("},{") + 1;
+        parser.append(BATCH.substring(0, firstEnd - 1));
+        assertTrue(parser.completedQuestions().isEmpty());
+        parser.append(BATCH.substring(firstEnd - 1, firstEnd));
+        assertEquals(1, parser.completedQuestions().size());
+        parser.append(BATCH.substring(firstEnd, BATCH.length() - 3));
+        assertEquals(1, parser.completedQuestions().size());
+        parser.append(BATCH.substring(BATCH.length() - 3));
+        assertEquals(2, parser.completedQuestions().size());
+    }
+
+    @Test
+    public void firstQuestionTextGrowsWithTheStream() {
+        StreamingQuestionParser parser = new StreamingQuestionParser();
+        parser.append("{\"questions\":[{\"quest");
+        assertNull(parser.firstQuestionText());
+        parser.append("ion\": ");
+        assertNull(parser.firstQuestionText());
+        parser.append("\"Is \\\"{A");
+        assertEquals("Is \"{A", parser.firstQuestionText());
+        // An escape cut in half is held back until the rest arrives
+        parser.append("TP}\\\" \\u00");
+        assertEquals("Is \"{ATP}\" ", parser.firstQuestionText());
+        parser.append("e9nergie?\",\"options\"");
+        assertEquals("Is \"{ATP}\" \u00e9nergie?", parser.firstQuestionText());
+    }
+
+    @Test
+    public void malformedObjectsAreIgnored() {
+        StreamingQuestionParser parser = new StreamingQuestionParser();
+        parser.append("Sure! {\"question\":\"Too few\",\"options\":[\"a\",\"b\"]} then ");
+        parser.append("{\"question\": oops} and {\"note\":\"no question\"}");
+        assertTrue(parser.completedQuestions().isEmpty());
+        parser.append(BATCH);
+        assertEquals(2, parser.completedQuestions().size());
+    }
+
+    private static void assertBothQuestions(StreamingQuestionParser parser) {
+        assertEquals(2, parser.completedQuestions().size());
+        GeneratedQuestion first = parser.completedQuestions().get(0);
+        assertEquals("Is \"{ATP}\" \u00e9nergie?", first.question);
+        assertArrayEquals(new String[]{"Yes", "No", "}", "{"}, first.options);
+        assertEquals("Where is DNA found?", parser.completedQuestions().get(1).question);
+        assertEquals(1, parser.completedQuestions().get(1).answerIndex);
+        assertEquals(first.question, parser.firstQuestionText());
+    }
+}
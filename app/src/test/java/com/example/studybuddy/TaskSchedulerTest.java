@@ -0,0 +1,59 @@
+package com.example.studybuddy;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+// Cancellation hooks: a caller waiting on its own future is released when the task never runs
+public class TaskSchedulerTest {
+    private final TaskScheduler scheduler = new TaskScheduler();
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void cancelAll_runsHookForQueuedTask() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch blocker = new CountDownLatch(1);
+        scheduler.submit(TaskScheduler.Lane.PREFETCH, () -> {
+            started.countDown();
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        CompletableFuture<String> result = new CompletableFuture<>();
+        scheduler.submit(TaskScheduler.Lane.PREFETCH, TaskScheduler.Priority.NORMAL,
+                () -> result.complete("ran"), () -> result.complete(null));
+
+        scheduler.cancelAll(TaskScheduler.Lane.PREFETCH);
+        assertNull(result.get(1, TimeUnit.SECONDS));
+        assertEquals(2, scheduler.getStats(TaskScheduler.Lane.PREFETCH).cancelled);
+    }
+
+    @Test
+    public void submitAfterShutdown_runsHook() throws Exception {
+        scheduler.shutdown();
+        CompletableFuture<String> result = new CompletableFuture<>();
+        scheduler.submit(TaskScheduler.Lane.PREFETCH, TaskScheduler.Priority.NORMAL,
+                () -> result.complete("ran"), () -> result.complete(null));
+        assertNull(result.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void completedTask_skipsHook() throws Exception {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        scheduler.submit(TaskScheduler.Lane.DATABASE, TaskScheduler.Priority.NORMAL,
+                () -> result.complete("ran"), () -> result.complete(null)).get(1, TimeUnit.SECONDS);
+        assertEquals("ran", result.getNow(null));
+    }
+}
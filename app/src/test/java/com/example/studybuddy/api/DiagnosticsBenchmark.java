@@ -0,0 +1,103 @@
+package com.example.studybuddy.api;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okhttp3.logging.HttpLoggingInterceptor;
+
+/**
+ * Per-request cost of HTTP diagnostics: the BODY-level HttpLoggingInterceptor the app used to install
+ * against GroqDiagnostics in each mode. A terminal interceptor answers with a canned completion, so
+ * only the client-side work is measured; log calls go to a counter instead of logcat.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiagnosticsBenchmark {
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+
+    private static final String REQUEST_BODY = "{\"model\":\"llama-3.1-8b-instant\",\"messages\":[" +
+            "{\"role\":\"system\",\"content\":\"You are a tutor. Check answers quickly and provide JSON.\"}," +
+            "{\"role\":\"user\",\"content\":\"Q: Which organelle is known as the powerhouse of the cell?\"}]," +
+            "\"max_tokens\":300}";
+
+    private static final String RESPONSE_BODY;
+
+    static {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 12; i++) {
+            content.append("Mitochondria produce most of the cell's ATP through cellular respiration. ");
+        }
+        RESPONSE_BODY = "{\"id\":\"chatcmpl-bench\",\"object\":\"chat.completion\",\"model\":\"llama-3.1-8b-instant\"," +
+                "\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":\"" + content +
+                "\"},\"finish_reason\":\"stop\"}]," +
+                "\"usage\":{\"prompt_tokens\":96,\"completion_tokens\":180,\"total_tokens\":276}}";
+    }
+
+    // NONE: no diagnostics at all; BODY: the old HttpLoggingInterceptor; the rest are GroqDiagnostics modes
+    @Param({"NONE", "BODY", "OFF", "SAMPLED", "DEBUG"})
+    public String logging;
+
+    private OkHttpClient client;
+    private Request request;
+    private long loggedChars;
+
+    @Setup
+    public void setUp() {
+        OkHttpClient.Builder builder = new OkHttpClient.Builder();
+        if ("BODY".equals(logging)) {
+            HttpLoggingInterceptor body = new HttpLoggingInterceptor(message -> loggedChars += message.length());
+            body.setLevel(HttpLoggingInterceptor.Level.BODY);
+            builder.addInterceptor(body);
+        } else if (!"NONE".equals(logging)) {
+            GroqDiagnostics.setMode(GroqDiagnostics.Mode.valueOf(logging));
+            builder.addInterceptor(new GroqDiagnostics());
+        }
+        builder.addInterceptor(chain -> new Response.Builder()
+                .request(chain.request())
+                .protocol(Protocol.HTTP_2)
+                .code(200)
+                .message("OK")
+                .header("content-type", "application/json")
+                .header("x-ratelimit-remaining-requests", "29")
+                .header("x-ratelimit-remaining-tokens", "11724")
+                .body(ResponseBody.create(RESPONSE_BODY, JSON))
+                .build());
+        client = builder.build();
+
+        request = new Request.Builder()
+                .url(GroqApiService.BASE_URL + "openai/v1/chat/completions")
+                .header("Authorization", "Bearer benchmark")
+                .post(RequestBody.create(REQUEST_BODY, JSON))
+                .build();
+    }
+
+    @Benchmark
+    public String completion() throws IOException {
+        try (Response response = client.newCall(request).execute()) {
+            return response.body().string();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.studybuddy.api;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import retrofit2.Call;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * GroqCallExecutor against scripted MockWebServer responses: server-requested waits on 429,
+ * retry exhaustion on 5xx, and the circuit breaker opening, rejecting calls and half-opening.
+ */
+public class GroqCallExecutorTest {
+    // Limits high enough that the token buckets never delay these tests
+    private static final int RPM = 1000;
+    private static final int TPM = 1_000_000;
+    private static final long OPEN_MS = 300;
+
+    private MockWebServer server;
+    private GroqApiService service;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        service = new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .addConverterFactory(GsonConverterFactory.create())
+                .build()
+                .create(GroqApiService.class);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void rateLimited_waitsForRetryAfter() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader("retry-after", "1"));
+        server.enqueue(completion());
+        GroqCallExecutor executor = new GroqCallExecutor(1, RPM, TPM);
+
+        long start = System.nanoTime();
+        Response<GroqChatResponse> response = executor.execute(call(), 100);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(response.isSuccessful());
+        assertEquals(2, server.getRequestCount());
+        assertTrue("retried after " + elapsedMs + "ms", elapsedMs >= 1000);
+        assertFalse(executor.isOpen());
+    }
+
+    @Test
+    public void rateLimited_waitsForLaterRatelimitReset() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(429)
+                .setHeader("x-ratelimit-reset-requests", "150ms")
+                .setHeader("x-ratelimit-reset-tokens", "0.4s"));
+        server.enqueue(completion());
+        GroqCallExecutor executor = new GroqCallExecutor(1, RPM, TPM);
+
+        long start = System.nanoTime();
+        Response<GroqChatResponse> response = executor.execute(call(), 100);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(response.isSuccessful());
+        assertTrue("retried after " + elapsedMs + "ms", elapsedMs >= 400);
+    }
+
+    @Test
+    public void rateLimited_givesUpWhenRetryAfterIsTooLong() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader("retry-after", "60"));
+        server.enqueue(completion());
+
+        Response<GroqChatResponse> response = new GroqCallExecutor(1, RPM, TPM).execute(call(), 100);
+
+        assertEquals(429, response.code());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void parseDuration_readsGroqResetFormats() {
+        assertEquals(179560, GroqCallExecutor.parseDuration("2m59.56s"));
+        assertEquals(7660, GroqCallExecutor.parseDuration("7.66s"));
+        assertEquals(120, GroqCallExecutor.parseDuration("120ms"));
+        assertEquals(3600000, GroqCallExecutor.parseDuration("1h"));
+        assertEquals(-1, GroqCallExecutor.parseDuration("soon"));
+        assertEquals(-1, GroqCallExecutor.parseDuration(null));
+    }
+
+    @Test
+    public void serverErrors_returnLastResponseWhenRetriesRunOut() throws Exception {
+        for (int i = 0; i < GroqCallExecutor.MAX_ATTEMPTS; i++) {
+            server.enqueue(new MockResponse().setResponseCode(503));
+        }
+        server.enqueue(completion());
+
+        Response<GroqChatResponse> response = new GroqCallExecutor(1, RPM, TPM).execute(call(), 100);
+
+        assertEquals(503, response.code());
+        assertEquals(GroqCallExecutor.MAX_ATTEMPTS, server.getRequestCount());
+    }
+
+    @Test
+    public void breaker_opensAfterFailuresAndHalfOpens() throws Exception {
+        GroqCallExecutor executor = new GroqCallExecutor(1, RPM, TPM, OPEN_MS);
+        for (int i = 0; i < GroqCallExecutor.FAILURE_THRESHOLD; i++) {
+            assertFalse(executor.isOpen());
+            failCall(executor);
+        }
+        assertTrue(executor.isOpen());
+        assertRejected(executor);
+
+        // Half-open: a failed trial reopens the breaker straight away
+        Thread.sleep(OPEN_MS + 50);
+        failCall(executor);
+        assertTrue(executor.isOpen());
+        assertRejected(executor);
+
+        // Half-open again: only the trial goes through, and its success closes the breaker
+        Thread.sleep(OPEN_MS + 50);
+        server.enqueue(completion().setHeadersDelay(300, TimeUnit.MILLISECONDS));
+        int before = server.getRequestCount();
+        AtomicReference<Object> trial = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            try {
+                trial.set(executor.execute(call(), 100));
+            } catch (Exception e) {
+                trial.set(e);
+            }
+        });
+        thread.start();
+        long deadline = System.currentTimeMillis() + 1000;
+        while (server.getRequestCount() == before && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals("trial call should reach the server", before + 1, server.getRequestCount());
+        assertRejected(executor);
+        thread.join();
+        assertTrue(String.valueOf(trial.get()), ((Response<?>) trial.get()).isSuccessful());
+
+        assertFalse(executor.isOpen());
+        server.enqueue(completion());
+        assertTrue(executor.execute(call(), 100).isSuccessful());
+    }
+
+    private void failCall(GroqCallExecutor executor) throws Exception {
+        for (int i = 0; i < GroqCallExecutor.MAX_ATTEMPTS; i++) {
+            server.enqueue(new MockResponse().setResponseCode(500));
+        }
+        assertEquals(500, executor.execute(call(), 100).code());
+    }
+
+    private void assertRejected(GroqCallExecutor executor) throws Exception {
+        int requests = server.getRequestCount();
+        try {
+            executor.execute(call(), 100);
+            fail("Expected the open breaker to reject the call");
+        } catch (GroqCallExecutor.CircuitOpenException expected) {
+            assertEquals(requests, server.getRequestCount());
+        }
+    }
+
+    private Call<GroqChatResponse> call() {
+        return service.chatCompletion(new GroqChatRequest(
+                Collections.singletonList(new ChatMessage("user", "Quiz me about Biology"))));
+    }
+
+    private static MockResponse completion() {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody(
+                "{\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":\"Ready!\"}}]}");
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.studybuddy.api;
+
+import com.example.studybuddy.StreamingQuestionParser;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.*;
+
+/**
+ * GroqStreamReader over a real HTTP stream whose chunks cut through lines and JSON events:
+ * reassembled deltas, the [DONE] sentinel, and data lines that aren't valid chunks.
+ */
+public class GroqStreamReaderTest {
+    private static final String QUESTION =
+            "{\"questions\":[{\"question\":\"What does ATP store?\",\"options\":[\"Energy\",\"Water\",\"DNA\",\"Oxygen\"]," +
+            "\"answer_index\":0}]}";
+
+    private MockWebServer server;
+    private final OkHttpClient client = new OkHttpClient();
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void deltasSplitAcrossChunks_buildTheQuestion() throws Exception {
+        StringBuilder sse = new StringBuilder();
+        for (int i = 0; i < QUESTION.length(); i += 5) {
+            sse.append(event(QUESTION.substring(i, Math.min(QUESTION.length(), i + 5))));
+        }
+        sse.append("data: [DONE]\n\n");
+
+        StreamingQuestionParser parser = new StreamingQuestionParser();
+        List<String> deltas = new ArrayList<>();
+        String text = read(sse.toString(), 7, delta -> {
+            deltas.add(delta);
+            parser.append(delta);
+        });
+
+        assertEquals(QUESTION, text);
+        assertEquals((QUESTION.length() + 4) / 5, deltas.size());
+        assertEquals("What does ATP store?", parser.firstQuestionText());
+        assertEquals(1, parser.completedQuestions().size());
+        assertEquals(0, parser.completedQuestions().get(0).answerIndex);
+    }
+
+    @Test
+    public void done_endsTheStream() throws Exception {
+        String sse = event("Hello") + event(" there") + "data: [DONE]\n\n" + event(" ignored");
+        List<String> deltas = new ArrayList<>();
+
+        assertEquals("Hello there", read(sse, 4, deltas::add));
+        assertEquals(2, deltas.size());
+    }
+
+    @Test
+    public void streamWithoutDone_returnsTextSoFar() throws Exception {
+        assertEquals("cut off", read(event("cut") + event(" off"), 3, null));
+    }
+
+    @Test
+    public void malformedDataLines_areSkipped() throws Exception {
+        String sse = ": keep-alive\n\n" +
+                event("one") +
+                "data: {\"choices\":[{\"delta\":{\"content\":\"tw\n\n" +
+                "data: [1, 2, 3]\n\n" +
+                "data:\n\n" +
+                "event: ping\ndata: {\"choices\":[]}\n\n" +
+                "data: {\"choices\":[{\"delta\":{\"role\":\"assistant\"}}]}\n\n" +
+                "data: {\"choices\":[{\"delta\":{\"content\":null}}]}\n\n" +
+                "data: {\"choices\":[{\"delta\":{\"content\":\" two\"}}]}\r\n\r\n" +
+                "data: [DONE]\n\n";
+        List<String> deltas = new ArrayList<>();
+
+        assertEquals("one two", read(sse, 6, deltas::add));
+        assertEquals(2, deltas.size());
+    }
+
+    @Test
+    public void usageOnLastChunk_isReported() throws Exception {
+        String sse = event("Hi") +
+                "data: {\"choices\":[{\"delta\":{}}],\"x_groq\":{\"usage\":" +
+                "{\"prompt_tokens\":12,\"completion_tokens\":3,\"total_tokens\":15}}}\n\n" +
+                "data: [DONE]\n\n";
+        Usage[] usage = new Usage[1];
+        String text = read(sse, 5, new GroqStreamReader.Listener() {
+            @Override
+            public void onDelta(String delta) {
+            }
+
+            @Override
+            public void onUsage(Usage streamUsage) {
+                usage[0] = streamUsage;
+            }
+        });
+
+        assertEquals("Hi", text);
+        assertNotNull(usage[0]);
+        assertEquals(12, usage[0].promptTokens);
+        assertEquals(3, usage[0].completionTokens);
+        assertEquals(15, usage[0].totalTokens);
+    }
+
+    // Serves the events in HTTP chunks of at most chunkBytes, so lines reach the reader in pieces
+    private String read(String sse, int chunkBytes, GroqStreamReader.Listener listener) throws Exception {
+        server.enqueue(new MockResponse()
+                .setHeader("Content-Type", "text/event-stream")
+                .setChunkedBody(sse, chunkBytes));
+        try (Response response = client.newCall(new Request.Builder().url(server.url("/")).build()).execute()) {
+            return GroqStreamReader.read(response.body(), listener);
+        }
+    }
+
+    private static String event(String content) {
+        String escaped = content.replace("\\", "\\\\").replace("\"", "\\\"");
+        return "data: {\"choices\":[{\"index\":0,\"delta\":{\"content\":\"" + escaped + "\"}}]}\n\n";
+    }
+}
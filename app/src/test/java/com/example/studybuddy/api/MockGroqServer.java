@@ -0,0 +1,322 @@
+package com.example.studybuddy.api;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Local stand-in for api.groq.com that replays the completions recorded in groq/recordings.json.
+ * Requests are told apart by their system prompt; question batches are dealt from the recorded
+ * pool so a quiz never sees the same question twice. Latency, streaming speed, injected errors and
+ * a requests-per-minute limit (answered with 429 and Groq's rate limit headers) are configurable.
+ */
+public class MockGroqServer {
+
+    public enum Kind {
+        GENERATE,
+        PREGRADE,
+        CHECK,
+        SUMMARY,
+        CHAT
+    }
+
+    private static final Pattern BATCH_SIZE = Pattern.compile("Create (\\d+) multiple-choice");
+    private static final int STREAM_CHUNK_CHARS = 24;
+
+    private final MockWebServer server = new MockWebServer();
+    private final JsonObject recordings;
+    private final Map<Kind, AtomicInteger> requests = new EnumMap<>(Kind.class);
+    private final AtomicInteger served = new AtomicInteger();
+    private final AtomicInteger rejected = new AtomicInteger();
+    private final Deque<Integer> failures = new ArrayDeque<>();
+    private final Deque<Long> recentRequests = new ArrayDeque<>();
+    private int nextQuestion;
+
+    private volatile long latencyMs;
+    private volatile long streamBytesPerSecond;
+    private volatile int requestsPerMinute;
+
+    public MockGroqServer() {
+        try (Reader reader = new InputStreamReader(
+                MockGroqServer.class.getResourceAsStream("/groq/recordings.json"), StandardCharsets.UTF_8)) {
+            recordings = JsonParser.parseReader(reader).getAsJsonObject();
+        } catch (IOException e) {
+            throw new IllegalStateException("Missing groq/recordings.json", e);
+        }
+        for (Kind kind : Kind.values()) {
+            requests.put(kind, new AtomicInteger());
+        }
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return respond(request);
+            }
+        });
+    }
+
+    // Base URL to hand to GroqApiService.Factory.setBaseUrl()
+    public String start() throws IOException {
+        server.start();
+        return server.url("/").toString();
+    }
+
+    public void shutdown() throws IOException {
+        server.shutdown();
+    }
+
+    // Time to response headers for every request
+    public void setLatency(long ms) {
+        latencyMs = ms;
+    }
+
+    // Paces streamed bodies, e.g. 200 bytes/s is roughly 50 tokens/s; 0 sends them at once
+    public void setStreamRate(long bytesPerSecond) {
+        streamBytesPerSecond = bytesPerSecond;
+    }
+
+    // Requests over the limit in any 60 second window get a 429; 0 turns the limit off
+    public void setRateLimit(int requestsPerMinute) {
+        this.requestsPerMinute = requestsPerMinute;
+    }
+
+    // The next count requests, of any kind, fail with this status
+    public synchronized void failNext(int count, int code) {
+        for (int i = 0; i < count; i++) {
+            failures.add(code);
+        }
+    }
+
+    public int requestCount(Kind kind) {
+        return requests.get(kind).get();
+    }
+
+    public int servedCount() {
+        return served.get();
+    }
+
+    public int rejectedCount() {
+        return rejected.get();
+    }
+
+    private MockResponse respond(RecordedRequest request) {
+        if (!request.getPath().endsWith("/chat/completions")) {
+            return new MockResponse().setResponseCode(404);
+        }
+
+        MockResponse error = injectedError();
+        if (error != null) {
+            rejected.incrementAndGet();
+            return delayed(error);
+        }
+
+        JsonObject body = JsonParser.parseString(request.getBody().readUtf8()).getAsJsonObject();
+        String prompt = prompt(body);
+        Kind kind = classify(prompt);
+        requests.get(kind).incrementAndGet();
+        served.incrementAndGet();
+
+        String content;
+        switch (kind) {
+            case GENERATE:
+                content = questionBatch(batchSize(prompt));
+                break;
+            case PREGRADE:
+                content = recordings.get("pregrade").getAsString();
+                break;
+            case CHECK:
+                content = recordings.get("check").getAsString();
+                break;
+            case SUMMARY:
+                content = recordings.get("summary").getAsString();
+                break;
+            case CHAT:
+            default:
+                content = recordings.get("chat").getAsString();
+                break;
+        }
+
+        boolean stream = body.has("stream") && !body.get("stream").isJsonNull() && body.get("stream").getAsBoolean();
+        MockResponse response = stream ? streamed(content) : completion(content);
+        response.addHeader("x-ratelimit-remaining-requests", Math.max(0, remainingRequests()));
+        return delayed(response);
+    }
+
+    private synchronized MockResponse injectedError() {
+        Integer code = failures.poll();
+        if (code != null) {
+            MockResponse response = new MockResponse().setResponseCode(code)
+                    .setBody("{\"error\":{\"message\":\"Injected failure\",\"type\":\"server_error\"}}");
+            if (code == 429) {
+                response.addHeader("retry-after", "0");
+            }
+            return response;
+        }
+
+        if (requestsPerMinute > 0) {
+            long now = System.nanoTime();
+            while (!recentRequests.isEmpty() && now - recentRequests.peekFirst() > TimeUnit.MINUTES.toNanos(1)) {
+                recentRequests.pollFirst();
+            }
+            if (recentRequests.size() >= requestsPerMinute) {
+                long resetMs = TimeUnit.NANOSECONDS.toMillis(
+                        TimeUnit.MINUTES.toNanos(1) - (now - recentRequests.peekFirst()));
+                return new MockResponse().setResponseCode(429)
+                        .addHeader("x-ratelimit-remaining-requests", "0")
+                        .addHeader("x-ratelimit-reset-requests", (resetMs / 1000.0) + "s")
+                        .setBody("{\"error\":{\"message\":\"Rate limit reached\",\"type\":\"requests\"}}");
+            }
+            recentRequests.addLast(now);
+        }
+        return null;
+    }
+
+    private synchronized int remainingRequests() {
+        return requestsPerMinute > 0 ? requestsPerMinute - recentRequests.size() : 1000;
+    }
+
+    private MockResponse delayed(MockResponse response) {
+        if (latencyMs > 0) {
+            response.setHeadersDelay(latencyMs, TimeUnit.MILLISECONDS);
+        }
+        return response;
+    }
+
+    private static MockResponse completion(String content) {
+        JsonObject message = new JsonObject();
+        message.addProperty("role", "assistant");
+        message.addProperty("content", content);
+        JsonObject choice = new JsonObject();
+        choice.addProperty("index", 0);
+        choice.add("message", message);
+        choice.addProperty("finish_reason", "stop");
+        JsonArray choices = new JsonArray();
+        choices.add(choice);
+
+        JsonObject body = new JsonObject();
+        body.addProperty("id", "chatcmpl-mock");
+        body.addProperty("object", "chat.completion");
+        body.add("choices", choices);
+        body.add("usage", usage(content));
+        return new MockResponse()
+                .setHeader("content-type", "application/json")
+                .setBody(body.toString());
+    }
+
+    private MockResponse streamed(String content) {
+        StringBuilder events = new StringBuilder();
+        for (int start = 0; start < content.length(); start += STREAM_CHUNK_CHARS) {
+            String piece = content.substring(start, Math.min(content.length(), start + STREAM_CHUNK_CHARS));
+            JsonObject delta = new JsonObject();
+            delta.addProperty("content", piece);
+            events.append("data: ").append(chunk(delta, null)).append("\n\n");
+        }
+        JsonObject groq = new JsonObject();
+        groq.add("usage", usage(content));
+        events.append("data: ").append(chunk(new JsonObject(), groq)).append("\n\n");
+        events.append("data: [DONE]\n\n");
+
+        MockResponse response = new MockResponse()
+                .setHeader("content-type", "text/event-stream")
+                .setBody(events.toString());
+        long rate = streamBytesPerSecond;
+        if (rate > 0) {
+            // Ten pauses a second at the configured rate
+            response.throttleBody(Math.max(1, rate / 10), 100, TimeUnit.MILLISECONDS);
+        }
+        return response;
+    }
+
+    private static JsonObject chunk(JsonObject delta, JsonObject groq) {
+        JsonObject choice = new JsonObject();
+        choice.addProperty("index", 0);
+        choice.add("delta", delta);
+        JsonArray choices = new JsonArray();
+        choices.add(choice);
+        JsonObject chunk = new JsonObject();
+        chunk.addProperty("object", "chat.completion.chunk");
+        chunk.add("choices", choices);
+        if (groq != null) {
+            chunk.add("x_groq", groq);
+        }
+        return chunk;
+    }
+
+    private static JsonObject usage(String content) {
+        JsonObject usage = new JsonObject();
+        int completion = PromptBudget.estimateTokens(content);
+        usage.addProperty("prompt_tokens", 200);
+        usage.addProperty("completion_tokens", completion);
+        usage.addProperty("total_tokens", 200 + completion);
+        return usage;
+    }
+
+    // Deals the next questions from the recorded pool; after a full round they come back numbered
+    private synchronized String questionBatch(int count) {
+        JsonArray pool = recordings.getAsJsonArray("questions");
+        JsonArray batch = new JsonArray();
+        for (int i = 0; i < count; i++) {
+            int index = nextQuestion++;
+            JsonObject question = pool.get(index % pool.size()).getAsJsonObject().deepCopy();
+            if (index >= pool.size()) {
+                question.addProperty("question",
+                        question.get("question").getAsString() + " (" + (index / pool.size() + 1) + ")");
+            }
+            batch.add(question);
+        }
+        JsonObject root = new JsonObject();
+        root.add("questions", batch);
+        return new Gson().toJson(root);
+    }
+
+    private static int batchSize(String prompt) {
+        Matcher matcher = BATCH_SIZE.matcher(prompt);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : 1;
+    }
+
+    private static String prompt(JsonObject body) {
+        StringBuilder prompt = new StringBuilder();
+        for (JsonElement message : body.getAsJsonArray("messages")) {
+            JsonElement content = message.getAsJsonObject().get("content");
+            if (content != null && !content.isJsonNull()) {
+                prompt.append(content.getAsString()).append('\n');
+            }
+        }
+        return prompt.toString();
+    }
+
+    private static Kind classify(String prompt) {
+        if (prompt.contains("You are a question generator")) {
+            return Kind.GENERATE;
+        }
+        if (prompt.contains("grading a multiple-choice question")) {
+            return Kind.PREGRADE;
+        }
+        if (prompt.contains("Check answers quickly")) {
+            return Kind.CHECK;
+        }
+        if (prompt.contains("Give me a short summary")) {
+            return Kind.SUMMARY;
+        }
+        return Kind.CHAT;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.studybuddy.data;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class OptionsConverterTest {
+    @Test
+    public void roundTrip() {
+        String[] options = {"Mitochondria", "Nucleus", "Ribosome, free", "\"Golgi\" body"};
+        assertArrayEquals(options, OptionsConverter.fromJson(OptionsConverter.toJson(options)));
+    }
+
+    @Test
+    public void readsRowsWrittenBeforeTheConverter() {
+        // Rows saved with new Gson().toJson(String[]) before options became a typed column
+        String legacy = "[\"A cell\",\"An organ\",\"A tissue\",\"A system\"]";
+        assertArrayEquals(new String[]{"A cell", "An organ", "A tissue", "A system"},
+                OptionsConverter.fromJson(legacy));
+    }
+
+    @Test
+    public void nullEmptyAndMalformed() {
+        assertNull(OptionsConverter.toJson(null));
+        assertNull(OptionsConverter.fromJson(null));
+        assertNull(OptionsConverter.fromJson(""));
+        assertNull(OptionsConverter.fromJson("not json"));
+    }
+
+    @Test
+    public void optionsLabelIsBuiltOnce() {
+        QuizHistory row = new QuizHistory();
+        row.options = new String[]{"Red", "Green", "Blue", "Yellow"};
+        String label = row.getOptionsLabel();
+        assertEquals("Options: A) Red, B) Green, C) Blue, D) Yellow", label);
+        assertSame(label, row.getOptionsLabel());
+
+        assertNull(new QuizHistory().getOptionsLabel());
+    }
+}